@@ -0,0 +1,341 @@
+package io.github.the_sdet.common;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A size bounded, thread safe cache with approximate least-recently-used
+ * eviction and hit/miss statistics, for the hot caches used across the toolkit
+ * (workbooks, compiled paths, patterns etc.).
+ * <p>
+ * Lookups neither take a lock nor update any shared counter: a hit only sets
+ * the referenced flag of its entry, and only if it is not set yet. Eviction
+ * follows the CLOCK (second chance) policy: inserted entries queue up in
+ * insertion order, and when the cache is full the queue is swept from its
+ * head, clearing the flag of referenced entries and moving them to the tail,
+ * and evicting the first entry that was not used since the last sweep. Each
+ * eviction therefore costs amortized constant time, and only inserts, i.e.
+ * cache misses, take the eviction lock.
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the cached values
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class BoundedCache<K, V> {
+  private final ConcurrentHashMap<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+  private final ArrayDeque<Entry<K, V>> clock = new ArrayDeque<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final BiConsumer<? super K, ? super V> evictionListener;
+  private volatile int maxSize;
+
+  /**
+   * Creates a cache holding at most maxSize entries.
+   *
+   * @param maxSize
+   *            maximum number of entries
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public BoundedCache(int maxSize) {
+    this(maxSize, null);
+  }
+
+  /**
+   * Creates a cache holding at most maxSize entries, notifying the listener for
+   * every entry that is evicted or invalidated.
+   *
+   * @param maxSize
+   *            maximum number of entries
+   * @param evictionListener
+   *            listener called with key and value of each removed entry, can be
+   *            null
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public BoundedCache(int maxSize, BiConsumer<? super K, ? super V> evictionListener) {
+    setMaxSize(maxSize);
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Returns the cached value for the key, loading and caching it with the loader
+   * if it is not present yet. The loader is called at most once per key even
+   * when several threads ask for the same missing key.
+   *
+   * @param key
+   *            cache key
+   * @param loader
+   *            function creating the value for a missing key
+   * @return cached or newly loaded value
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    Entry<K, V> entry = map.get(key);
+    if (entry != null) {
+      hits.increment();
+      entry.touch();
+      return entry.value;
+    }
+    boolean[] loaded = new boolean[1];
+    entry = map.computeIfAbsent(key, k -> {
+      loaded[0] = true;
+      return new Entry<>(k, loader.apply(k));
+    });
+    if (loaded[0]) {
+      misses.increment();
+      synchronized (clock) {
+        clock.addLast(entry);
+      }
+      evictIfNeeded(entry);
+    } else {
+      hits.increment();
+      entry.touch();
+    }
+    return entry.value;
+  }
+
+  /**
+   * Caches a value for the key, replacing any value cached before. Does not
+   * count as a hit or miss.
+   *
+   * @param key
+   *            cache key
+   * @param value
+   *            value to cache
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void put(K key, V value) {
+    Entry<K, V> entry = new Entry<>(key, value);
+    Entry<K, V> previous = map.put(key, entry);
+    synchronized (clock) {
+      if (previous != null)
+        clock.remove(previous);
+      clock.addLast(entry);
+    }
+    if (previous != null && previous.value != value)
+      notifyRemoval(key, previous.value);
+    evictIfNeeded(entry);
+  }
+
+  /**
+   * Returns the cached value for the key without loading it.
+   *
+   * @param key
+   *            cache key
+   * @return cached value or null if the key is not cached
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public V getIfPresent(K key) {
+    Entry<K, V> entry = map.get(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    entry.touch();
+    return entry.value;
+  }
+
+  /**
+   * Removes the entry for the key, if present.
+   *
+   * @param key
+   *            cache key
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void invalidate(K key) {
+    Entry<K, V> entry = map.remove(key);
+    if (entry != null)
+      removed(entry);
+  }
+
+  /**
+   * Removes all entries whose key matches the predicate.
+   *
+   * @param predicate
+   *            condition on the key
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void invalidateIf(Predicate<? super K> predicate) {
+    for (Map.Entry<K, Entry<K, V>> entry : map.entrySet()) {
+      if (predicate.test(entry.getKey()) && map.remove(entry.getKey(), entry.getValue()))
+        removed(entry.getValue());
+    }
+  }
+
+  /**
+   * Removes all entries of the cache.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void invalidateAll() {
+    invalidateIf(key -> true);
+  }
+
+  /**
+   * Changes the maximum number of entries, evicting entries if the cache is
+   * already larger.
+   *
+   * @param maxSize
+   *            maximum number of entries
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void setMaxSize(int maxSize) {
+    if (maxSize < 1)
+      throw new IllegalArgumentException("Cache size must be at least 1 but was: " + maxSize);
+    this.maxSize = maxSize;
+    evictIfNeeded(null);
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   *
+   * @return maximum size of the cache
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Returns the current number of entries.
+   *
+   * @return size of the cache
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * Returns the number of lookups that found a cached value.
+   *
+   * @return hit count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that did not find a cached value.
+   *
+   * @return miss count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of entries evicted because the cache was full.
+   *
+   * @return eviction count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Returns the ratio of hits to all lookups.
+   *
+   * @return hit rate between 0.0 and 1.0, 0.0 if there were no lookups yet
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getHitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+
+  /**
+   * Resets hit, miss and eviction counters.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void resetStatistics() {
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "BoundedCache{size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount() + ", misses="
+        + getMissCount() + ", evictions=" + getEvictionCount() + "}";
+  }
+
+  /**
+   * Evicts entries by sweeping the clock queue until the cache fits its maximum
+   * size. An entry referenced since the last sweep, or just inserted, gets a
+   * second chance; after a full sweep without a victim, concurrent hits cannot
+   * keep the head alive any longer and it is evicted regardless.
+   *
+   * @param inserted
+   *            entry whose insert triggered the eviction, null if none
+   */
+  private void evictIfNeeded(Entry<K, V> inserted) {
+    if (map.size() <= maxSize)
+      return;
+    synchronized (clock) {
+      int secondChances = 0;
+      while (map.size() > maxSize) {
+        Entry<K, V> entry = clock.pollFirst();
+        if (entry == null)
+          return;
+        if (map.get(entry.key) != entry)
+          continue;
+        if ((entry.referenced || entry == inserted) && secondChances++ <= clock.size()) {
+          entry.referenced = false;
+          clock.addLast(entry);
+          continue;
+        }
+        if (map.remove(entry.key, entry)) {
+          evictions.increment();
+          notifyRemoval(entry.key, entry.value);
+        }
+      }
+    }
+  }
+
+  private void removed(Entry<K, V> entry) {
+    synchronized (clock) {
+      clock.remove(entry);
+    }
+    notifyRemoval(entry.key, entry.value);
+  }
+
+  private void notifyRemoval(K key, V value) {
+    if (evictionListener != null)
+      evictionListener.accept(key, value);
+  }
+
+  private static final class Entry<K, V> {
+    final K key;
+    final V value;
+    volatile boolean referenced;
+
+    Entry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    /**
+     * Marks the entry as used, writing the shared flag only when it changes so
+     * that hits on a hot entry stay read-only.
+     */
+    void touch() {
+      if (!referenced)
+        referenced = true;
+    }
+  }
+}
@@ -0,0 +1,597 @@
+package io.github.the_sdet.db;
+
+import io.github.the_sdet.logger.Log;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lightweight JDBC connection pool, so parallel test threads can share a
+ * {@link DatabaseUtils} without sharing a single connection or opening a new
+ * one per scenario.
+ * <p>
+ * Features:
+ * <ul>
+ * <li>min/max sizing - at least minSize connections are kept open, at most
+ * maxSize are handed out at a time; further borrowers wait up to the borrow
+ * timeout</li>
+ * <li>validation on borrow - idle connections are checked with
+ * {@link Connection#isValid(int)} and replaced if broken</li>
+ * <li>idle eviction - connections idle longer than the idle timeout are
+ * closed, down to minSize</li>
+ * <li>leak detection - connections held longer than the leak detection
+ * threshold are logged with the stack trace of the borrower</li>
+ * </ul>
+ * Borrowed connections are proxies; closing them returns the physical
+ * connection to the pool, with pending transactions rolled back and
+ * auto-commit restored. Statements, result sets and metadata obtained from a
+ * borrowed connection are proxies too, so their {@code getConnection()} returns
+ * the borrowed connection and not the physical one. Statements the borrower
+ * left open are closed when the connection is returned.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * ConnectionPool pool = new ConnectionPool(url, user, password, 2, 10).setLeakDetectionThreshold(Duration.ofMinutes(1));
+ * DatabaseUtils db = new DatabaseUtils(pool);
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ConnectionPool implements AutoCloseable {
+  /**
+   * Opens physical connections for the pool.
+   */
+  @FunctionalInterface
+  public interface ConnectionFactory {
+    /**
+     * @return new physical connection
+     * @throws SQLException
+     *             if the connection cannot be opened
+     */
+    Connection create() throws SQLException;
+  }
+
+  private static final long HOUSEKEEPING_PERIOD_MILLIS = 5000;
+  private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+  private final ConnectionFactory factory;
+  private final int minSize;
+  private final int maxSize;
+  private final Semaphore permits;
+  private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+  private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger openConnections = new AtomicInteger();
+  private final ScheduledExecutorService housekeeper;
+  private volatile long borrowTimeoutMillis = 30_000;
+  private volatile int validationTimeoutSeconds = 2;
+  private volatile long idleTimeoutMillis = 600_000;
+  private volatile long leakDetectionThresholdMillis;
+  private volatile int statementCacheSize = StatementCache.DEFAULT_MAX_SIZE;
+  private volatile boolean closed;
+
+  /**
+   * Creates a pool opening connections with {@link DriverManager}.
+   *
+   * @param url
+   *            JDBC url
+   * @param user
+   *            database user
+   * @param password
+   *            database password
+   * @param minSize
+   *            number of connections kept open
+   * @param maxSize
+   *            maximum number of connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool(String url, String user, String password, int minSize, int maxSize) {
+    this(() -> DriverManager.getConnection(url, user, password), minSize, maxSize);
+  }
+
+  /**
+   * Creates a pool opening connections with a factory, e.g. a DataSource.
+   *
+   * @param factory
+   *            factory of physical connections
+   * @param minSize
+   *            number of connections kept open
+   * @param maxSize
+   *            maximum number of connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize) {
+    if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+      throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+    this.factory = factory;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    this.permits = new Semaphore(maxSize, true);
+    int poolNumber = POOL_COUNT.incrementAndGet();
+    this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "db-connection-pool-" + poolNumber);
+      thread.setDaemon(true);
+      return thread;
+    });
+    fillToMinSize();
+    housekeeper.scheduleWithFixedDelay(this::houseKeep, HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS,
+        TimeUnit.MILLISECONDS);
+    Log.info("Created connection pool with " + idle.size() + " connections, max " + maxSize);
+  }
+
+  /**
+   * Sets how long a borrower waits for a free connection. Default 30 seconds.
+   *
+   * @param timeout
+   *            borrow timeout
+   * @return this pool
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool setBorrowTimeout(Duration timeout) {
+    this.borrowTimeoutMillis = timeout.toMillis();
+    return this;
+  }
+
+  /**
+   * Sets the timeout of the validation of idle connections on borrow. Default 2
+   * seconds.
+   *
+   * @param timeout
+   *            validation timeout, rounded up to seconds
+   * @return this pool
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool setValidationTimeout(Duration timeout) {
+    this.validationTimeoutSeconds = (int) Math.max(1, (timeout.toMillis() + 999) / 1000);
+    return this;
+  }
+
+  /**
+   * Sets after which idle time connections above minSize are closed. Default 10
+   * minutes.
+   *
+   * @param timeout
+   *            idle timeout
+   * @return this pool
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool setIdleTimeout(Duration timeout) {
+    this.idleTimeoutMillis = timeout.toMillis();
+    return this;
+  }
+
+  /**
+   * Sets after which time a borrowed connection that was not closed is logged as
+   * a possible leak, with the stack trace of its borrower. Disabled by default.
+   *
+   * @param threshold
+   *            leak detection threshold, zero to disable
+   * @return this pool
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool setLeakDetectionThreshold(Duration threshold) {
+    this.leakDetectionThresholdMillis = threshold.toMillis();
+    return this;
+  }
+
+  /**
+   * Sets the number of prepared statements cached per connection for the
+   * parameterized DatabaseUtils methods. Default 64. Applies to connections
+   * opened afterwards.
+   *
+   * @param size
+   *            prepared statements cached per connection
+   * @return this pool
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ConnectionPool setStatementCacheSize(int size) {
+    if (size < 1)
+      throw new IllegalArgumentException("Statement cache size must be positive: " + size);
+    this.statementCacheSize = size;
+    return this;
+  }
+
+  /**
+   * Borrows a connection, waiting up to the borrow timeout if all connections
+   * are in use. Close the connection to return it to the pool.
+   *
+   * @return pooled connection
+   * @throws SQLException
+   *             if no connection is available in time or a new connection
+   *             cannot be opened
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Connection getConnection() throws SQLException {
+    if (closed)
+      throw new SQLException("Connection pool is closed");
+    try {
+      if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS))
+        throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a connection, "
+            + leased.size() + " of " + maxSize + " in use");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a connection", e);
+    }
+    try {
+      PooledConnection pooled = takeValidIdleConnection();
+      if (pooled == null)
+        pooled = open();
+      pooled.lease(leakDetectionThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null);
+      leased.add(pooled);
+      return pooled.proxy;
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the number of connections currently borrowed.
+   *
+   * @return active connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getActiveConnections() {
+    return leased.size();
+  }
+
+  /**
+   * Returns the number of open connections waiting in the pool.
+   *
+   * @return idle connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getIdleConnections() {
+    return idle.size();
+  }
+
+  /**
+   * Returns the number of physical connections currently open.
+   *
+   * @return open connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getOpenConnections() {
+    return openConnections.get();
+  }
+
+  /**
+   * Closes all idle connections and stops the pool. Borrowed connections are
+   * closed when they are returned.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() {
+    closed = true;
+    housekeeper.shutdownNow();
+    PooledConnection pooled;
+    while ((pooled = idle.pollFirst()) != null)
+      closePhysical(pooled);
+    Log.info("Closed connection pool, " + leased.size() + " connections still in use");
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPool{active=" + getActiveConnections() + ", idle=" + getIdleConnections() + ", open="
+        + getOpenConnections() + ", min=" + minSize + ", max=" + maxSize + "}";
+  }
+
+  /**
+   * Takes the most recently used idle connection, discarding broken ones.
+   */
+  private PooledConnection takeValidIdleConnection() {
+    PooledConnection pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      try {
+        if (pooled.physical.isValid(validationTimeoutSeconds))
+          return pooled;
+      } catch (SQLException e) {
+        Log.warn("Validation of pooled connection failed: " + e.getMessage());
+      }
+      Log.warn("Discarding broken pooled connection");
+      closePhysical(pooled);
+    }
+    return null;
+  }
+
+  private PooledConnection open() throws SQLException {
+    Connection physical = factory.create();
+    openConnections.incrementAndGet();
+    return new PooledConnection(physical);
+  }
+
+  private void release(PooledConnection pooled) {
+    if (!leased.remove(pooled))
+      return;
+    pooled.closeStatements();
+    try {
+      if (closed || pooled.physical.isClosed()) {
+        closePhysical(pooled);
+      } else {
+        pooled.reset();
+        idle.offerFirst(pooled);
+      }
+    } catch (SQLException e) {
+      Log.warn("Discarding pooled connection that could not be reset: " + e.getMessage());
+      closePhysical(pooled);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void closePhysical(PooledConnection pooled) {
+    openConnections.decrementAndGet();
+    pooled.statements.close();
+    try {
+      pooled.physical.close();
+    } catch (SQLException e) {
+      Log.error("Error closing the DB connection...", e);
+    }
+  }
+
+  /**
+   * Evicts connections idle too long, refills to minSize and reports leaks.
+   */
+  private void houseKeep() {
+    try {
+      long now = System.currentTimeMillis();
+      for (Iterator<PooledConnection> it = idle.descendingIterator(); it.hasNext();) {
+        PooledConnection pooled = it.next();
+        if (openConnections.get() <= minSize)
+          break;
+        if (now - pooled.lastUsed > idleTimeoutMillis && idle.removeLastOccurrence(pooled))
+          closePhysical(pooled);
+      }
+      fillToMinSize();
+      long threshold = leakDetectionThresholdMillis;
+      if (threshold > 0) {
+        for (PooledConnection pooled : leased) {
+          Throwable borrower = pooled.borrower;
+          if (borrower != null && !pooled.leakReported && now - pooled.borrowedAt > threshold) {
+            pooled.leakReported = true;
+            Log.warn("Possible connection leak, connection borrowed " + (now - pooled.borrowedAt)
+                + " ms ago was not returned, borrowed at:\n" + stackTrace(borrower));
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      Log.error("Error in connection pool housekeeping...", e);
+    }
+  }
+
+  private void fillToMinSize() {
+    while (!closed && openConnections.get() < minSize && permits.tryAcquire()) {
+      try {
+        if (openConnections.get() < minSize)
+          idle.offerLast(open());
+      } catch (SQLException e) {
+        Log.error("Unable to open pooled connection...", e);
+        return;
+      } finally {
+        permits.release();
+      }
+    }
+  }
+
+  /**
+   * Returns the prepared statement cache of the physical connection behind a
+   * borrowed connection, null if the connection is not from a pool.
+   */
+  static StatementCache statementCache(Connection connection) {
+    if (connection == null || !Proxy.isProxyClass(connection.getClass()))
+      return null;
+    InvocationHandler handler = Proxy.getInvocationHandler(connection);
+    return handler instanceof Handler ? ((Handler) handler).pooled.statements : null;
+  }
+
+  private static String stackTrace(Throwable borrower) {
+    StringBuilder trace = new StringBuilder();
+    for (StackTraceElement element : borrower.getStackTrace())
+      trace.append("\tat ").append(element).append('\n');
+    return trace.toString();
+  }
+
+  /**
+   * A physical connection with its pool state and the proxy handed out to
+   * borrowers.
+   */
+  private final class PooledConnection {
+    private final Connection physical;
+    private final boolean autoCommit;
+    private final StatementCache statements;
+    private final Set<Statement> openStatements = ConcurrentHashMap.newKeySet();
+    private volatile Connection proxy;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private volatile long borrowedAt;
+    private volatile Throwable borrower;
+    private volatile boolean leakReported;
+
+    PooledConnection(Connection physical) throws SQLException {
+      this.physical = physical;
+      this.autoCommit = physical.getAutoCommit();
+      this.statements = new StatementCache(physical, statementCacheSize);
+    }
+
+    /**
+     * Hands the connection out with a new proxy, so a proxy closed by a former
+     * borrower cannot reach the connection any more.
+     */
+    void lease(Throwable borrower) {
+      this.borrowedAt = System.currentTimeMillis();
+      this.borrower = borrower;
+      this.leakReported = false;
+      Handler handler = new Handler(this);
+      this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[]{Connection.class}, handler);
+      handler.proxy = this.proxy;
+    }
+
+    /**
+     * Closes the statements the borrower opened and did not close.
+     */
+    void closeStatements() {
+      if (openStatements.isEmpty())
+        return;
+      Log.warn("Closing " + openStatements.size() + " statements left open by the borrower of a pooled connection");
+      for (Iterator<Statement> it = openStatements.iterator(); it.hasNext();) {
+        Statement statement = it.next();
+        it.remove();
+        try {
+          statement.close();
+        } catch (SQLException e) {
+          Log.error("Error closing the statement...", e);
+        }
+      }
+    }
+
+    void reset() throws SQLException {
+      if (physical.getAutoCommit() != autoCommit) {
+        if (!physical.getAutoCommit())
+          physical.rollback();
+        physical.setAutoCommit(autoCommit);
+      } else if (!autoCommit) {
+        physical.rollback();
+      }
+      physical.clearWarnings();
+      borrower = null;
+      lastUsed = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Forwards calls to the physical connection until the borrower closes the
+   * proxy, which returns the connection to the pool. Statements and metadata
+   * are handed out wrapped, and the statements are tracked until closed.
+   */
+  private final class Handler implements InvocationHandler {
+    private final PooledConnection pooled;
+    private volatile Connection proxy;
+    private volatile boolean closed;
+
+    Handler(PooledConnection pooled) {
+      this.pooled = pooled;
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close" :
+          if (!closed) {
+            closed = true;
+            release(pooled);
+          }
+          return null;
+        case "isClosed" :
+          return closed || pooled.physical.isClosed();
+        case "equals" :
+          return proxy == args[0];
+        case "hashCode" :
+          return System.identityHashCode(proxy);
+        case "toString" :
+          return "Pooled" + (closed ? "(closed)" : "") + "[" + pooled.physical + "]";
+        case "unwrap" :
+          if (((Class<?>) args[0]).isInstance(pooled.physical))
+            return pooled.physical;
+          break;
+        default :
+          break;
+      }
+      checkOpen();
+      Object result = forward(pooled.physical, method, args);
+      if (result instanceof Statement)
+        pooled.openStatements.add((Statement) result);
+      return wrap(result, method.getReturnType(), null);
+    }
+
+    void checkOpen() throws SQLException {
+      if (closed)
+        throw new SQLException("Connection is closed, it was returned to the pool");
+    }
+
+    /**
+     * Wraps statements, result sets and metadata returned by the driver, other
+     * results are returned as they are.
+     */
+    Object wrap(Object result, Class<?> type, Object statement) {
+      if (result == null || !type.isInterface() || !(result instanceof Statement || result instanceof ResultSet
+          || result instanceof DatabaseMetaData))
+        return result;
+      return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+          new DelegateHandler(this, result, statement));
+    }
+  }
+
+  /**
+   * Forwards calls to a statement, result set or metadata of a borrowed
+   * connection, answering getConnection() and getStatement() with the proxies
+   * instead of the driver objects.
+   */
+  private static final class DelegateHandler implements InvocationHandler {
+    private final Handler connection;
+    private final Object target;
+    private final Object statement;
+
+    DelegateHandler(Handler connection, Object target, Object statement) {
+      this.connection = connection;
+      this.target = target;
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close" :
+          if (target instanceof Statement)
+            connection.pooled.openStatements.remove(target);
+          return forward(target, method, args);
+        case "isClosed" :
+          return forward(target, method, args);
+        case "equals" :
+          return proxy == args[0];
+        case "hashCode" :
+          return System.identityHashCode(proxy);
+        case "toString" :
+          return "Pooled[" + target + "]";
+        case "getConnection" :
+          return connection.proxy;
+        case "getStatement" :
+          if (statement != null)
+            return statement;
+          break;
+        default :
+          break;
+      }
+      connection.checkOpen();
+      Object result = forward(target, method, args);
+      return connection.wrap(result, method.getReturnType(), target instanceof Statement ? proxy : null);
+    }
+  }
+
+  private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
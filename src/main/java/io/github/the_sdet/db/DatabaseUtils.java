@@ -4,9 +4,17 @@ import io.github.the_sdet.logger.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This is a utility class to handle all the database querying operations needed
@@ -16,8 +24,16 @@ import java.util.UUID;
  */
 @SuppressWarnings("unused")
 public class DatabaseUtils {
+  /**
+   * Default number of rows fetched per round trip by the streaming methods.
+   */
+  public static final int DEFAULT_FETCH_SIZE = 1000;
+
+  private static final Object[] NO_PARAMS = new Object[0];
+
   private final Connection connection;
-  private Statement statement;
+  private final ConnectionPool pool;
+  private final StatementCache statements;
 
   /**
    * Initializes Database utils
@@ -28,30 +44,38 @@ public class DatabaseUtils {
    */
   public DatabaseUtils(Connection connection) {
     this.connection = connection;
+    this.pool = null;
+    this.statements = connection == null ? null : new StatementCache(connection, StatementCache.DEFAULT_MAX_SIZE);
   }
 
   /**
-   * This method establishes a connection to Database if the connection is NOT yet
-   * established
+   * Initializes Database utils on a connection pool. Every query borrows a
+   * connection and returns it once the result is read, so the instance can be
+   * shared by parallel threads.
    *
+   * @param pool
+   *            connection pool
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
-  private void initializeConnectionToDb() {
-    try {
-      assert connection != null;
-      statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-    } catch (SQLException e) {
-      Log.error("Exception creating statement using connection object passed...", e);
-    }
+  public DatabaseUtils(ConnectionPool pool) {
+    this.connection = null;
+    this.pool = pool;
+    this.statements = null;
   }
 
   /**
-   * This method closes the established Database connection
+   * This method closes the established Database connection. A connection pool
+   * passed to the constructor is left open for its owner to close.
    *
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public void closeDatabaseConnection() {
+    if (pool != null) {
+      Log.info("Database connections are returned to the pool, " + pool);
+      return;
+    }
     if (connection != null) {
+      statements.close();
       try {
         connection.close();
       } catch (SQLException e) {
@@ -72,17 +96,24 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public List<LinkedHashMap<String, String>> readDataFromDbWithColumnNames(String sql) {
-    Log.info("Query: " + sql);
-    initializeConnectionToDb();
-    assert statement != null;
-    ResultSet resultSet = null;
-    try {
-      resultSet = statement.executeQuery(sql);
-    } catch (SQLException e) {
-      Log.error("Error executing the query: " + sql + "\n", e);
-    }
-    assert resultSet != null;
-    return readResultSetWithColumnNames(resultSet);
+    return readDataFromDbWithColumnNames(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns the result with
+   * the column names. The query is run as a PreparedStatement, cached per
+   * connection, with the parameters bound to its ? placeholders
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return A list of rows are returned where each row is returned as a
+   *         LinkedHashMap
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<LinkedHashMap<String, String>> readDataFromDbWithColumnNames(String sql, Object... params) {
+    return executeQuery(sql, params, 0, this::readResultSetWithColumnNames, ArrayList::new);
   }
 
   /**
@@ -95,34 +126,99 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public List<List<String>> readDataFromDb(String sql) {
-    Log.info("Query: " + sql);
-    initializeConnectionToDb();
-    ResultSet resultSet = null;
-    try {
-      resultSet = statement.executeQuery(sql);
-    } catch (SQLException e) {
-      Log.error("Error executing the query: " + sql + "\n", e);
-    }
-    assert resultSet != null;
-    return readResultSet(resultSet);
+    return readDataFromDb(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns the result
+   * without the column names. The query is run as a PreparedStatement, cached
+   * per connection, with the parameters bound to its ? placeholders
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return A list of rows are returned where each row is returned as a List
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<List<String>> readDataFromDb(String sql, Object... params) {
+    return executeQuery(sql, params, 0, this::readResultSet, ArrayList::new);
+  }
+
+  /**
+   * This method executes an SQL query and returns the result as a compact
+   * DbTable. Column metadata is read once per query and each row is kept as a
+   * String array under the shared column names, which suits large results
+   * better than {@link #readDataFromDbWithColumnNames(String)}
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @return A DbTable of the rows, with no columns if the query failed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public DbTable readTableFromDb(String sql) {
+    return readTableFromDb(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns the result as a
+   * compact DbTable, see {@link #readTableFromDb(String)}. The query is run as a
+   * PreparedStatement, cached per connection, with the parameters bound to its ?
+   * placeholders
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return A DbTable of the rows, with no columns if the query failed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public DbTable readTableFromDb(String sql, Object... params) {
+    return executeQuery(sql, params, 0, this::readResultSetAsTable,
+        () -> new DbTable(new String[0], new ArrayList<>()));
   }
 
   /**
    * This method executes an SQL query and returns only the first row with the
-   * column names
+   * column names. The query is executed once and the driver is asked for a
+   * single row
    *
    * @param sql
    *            sql statement to query the DB
-   * @return Only one row is returned as a LinkedHashMap
+   * @return Only one row is returned as a LinkedHashMap. If the query returns no
+   *         rows an empty map is returned, no exception is thrown
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public LinkedHashMap<String, String> readSingleRowFromDbWithColumnNames(String sql) {
-    return readDataFromDbWithColumnNames(sql).get(0);
+    return readSingleRowFromDbWithColumnNames(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns only the first
+   * row with the column names
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return Only one row is returned as a LinkedHashMap. If the query returns no
+   *         rows an empty map is returned, no exception is thrown
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LinkedHashMap<String, String> readSingleRowFromDbWithColumnNames(String sql, Object... params) {
+    List<LinkedHashMap<String, String>> dataFromDb = executeQuery(sql, params, 1,
+        this::readResultSetWithColumnNames, ArrayList::new);
+    if (dataFromDb.isEmpty()) {
+      Log.error("No records fetched from DB for query: " + sql);
+      return new LinkedHashMap<>();
+    }
+    return dataFromDb.get(0);
   }
 
   /**
    * This method executes an SQL query and returns only the first row without the
-   * column names
+   * column names. The query is executed once and the driver is asked for a
+   * single row
    *
    * @param sql
    *            sql statement to query the DB
@@ -130,12 +226,27 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public List<String> readSingleRowFromDb(String sql) {
-    List<List<String>> dataFromDb = readDataFromDb(sql);
+    return readSingleRowFromDb(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns only the first
+   * row without the column names
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return Only one row is returned as a List
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> readSingleRowFromDb(String sql, Object... params) {
+    List<List<String>> dataFromDb = executeQuery(sql, params, 1, this::readResultSet, ArrayList::new);
     if (dataFromDb.isEmpty()) {
       Log.error("No records fetched from DB for query: " + sql);
       return new ArrayList<>();
-    } else
-      return readDataFromDb(sql).get(0);
+    }
+    return dataFromDb.get(0);
   }
 
   /**
@@ -148,8 +259,23 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public String readSingleDataFromDb(String sql) {
-    List<String> dataFromDb = readSingleRowFromDb(sql);
-    return dataFromDb.isEmpty() ? null : readSingleRowFromDb(sql).get(0);
+    return readSingleDataFromDb(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns only the data at
+   * first position of first row as a String
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return Single String value from position [0][0]
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String readSingleDataFromDb(String sql, Object... params) {
+    List<String> dataFromDb = readSingleRowFromDb(sql, params);
+    return dataFromDb.isEmpty() ? null : dataFromDb.get(0);
   }
 
   /**
@@ -162,14 +288,290 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public List<String> readSingleColumnFromDb(String sql) {
+    return readSingleColumnFromDb(sql, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and returns the first column
+   * data without the column names
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param params
+   *            values of the placeholders, in order
+   * @return First column data is returned as a List
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> readSingleColumnFromDb(String sql, Object... params) {
     List<String> valuesFromSingleColumn = new ArrayList<>();
-    List<List<String>> dataFromDb = readDataFromDb(sql);
+    List<List<String>> dataFromDb = readDataFromDb(sql, params);
     for (List<String> row : dataFromDb) {
       valuesFromSingleColumn.add(row.get(0));
     }
     return valuesFromSingleColumn;
   }
 
+  /**
+   * This method executes an SQL query and streams the result without the column
+   * names, see {@link #streamDataFromDb(String, int)}
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @return A Stream of rows where each row is returned as a List, must be
+   *         closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<List<String>> streamDataFromDb(String sql) {
+    return streamDataFromDb(sql, DEFAULT_FETCH_SIZE);
+  }
+
+  /**
+   * This method executes an SQL query and streams the result without the column
+   * names. Rows are read through a forward-only cursor as the stream is
+   * consumed, so memory use does not depend on the size of the result. The
+   * stream must be closed, e.g. with try-with-resources, to release the
+   * cursor.
+   * <p>
+   * The fetch size is a hint to the driver; some drivers need more to stream:
+   * <ul>
+   * <li>PostgreSQL only uses a cursor when auto-commit is disabled on the
+   * connection, otherwise the whole result is fetched at once</li>
+   * <li>MySQL Connector/J fetches the whole result unless the connection URL
+   * sets useCursorFetch=true, or the fetch size is Integer.MIN_VALUE for row by
+   * row streaming</li>
+   * </ul>
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @param fetchSize
+   *            number of rows fetched per round trip
+   * @return A Stream of rows where each row is returned as a List, must be
+   *         closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<List<String>> streamDataFromDb(String sql, int fetchSize) {
+    return streamDataFromDb(sql, fetchSize, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and streams the result
+   * without the column names, see {@link #streamDataFromDb(String, int)}. The
+   * query runs on its own PreparedStatement, which is closed with the stream
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param fetchSize
+   *            number of rows fetched per round trip
+   * @param params
+   *            values of the placeholders, in order
+   * @return A Stream of rows where each row is returned as a List, must be
+   *         closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<List<String>> streamDataFromDb(String sql, int fetchSize, Object... params) {
+    return streamQuery(sql, fetchSize, params, (resultSet, columns) -> {
+      List<String> row = new ArrayList<>(columns.count());
+      for (int i = 1; i <= columns.count(); i++) {
+        row.add(columns.value(resultSet, i));
+      }
+      return row;
+    });
+  }
+
+  /**
+   * This method executes an SQL query and streams the result with the column
+   * names, see {@link #streamDataFromDb(String, int)}
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @param fetchSize
+   *            number of rows fetched per round trip
+   * @return A Stream of rows where each row is returned as a LinkedHashMap, must
+   *         be closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<LinkedHashMap<String, String>> streamDataFromDbWithColumnNames(String sql, int fetchSize) {
+    return streamDataFromDbWithColumnNames(sql, fetchSize, NO_PARAMS);
+  }
+
+  /**
+   * This method executes a parameterized SQL query and streams the result with
+   * the column names, see {@link #streamDataFromDb(String, int)}. The query runs
+   * on its own PreparedStatement, which is closed with the stream
+   *
+   * @param sql
+   *            sql statement with ? placeholders to query the DB
+   * @param fetchSize
+   *            number of rows fetched per round trip
+   * @param params
+   *            values of the placeholders, in order
+   * @return A Stream of rows where each row is returned as a LinkedHashMap, must
+   *         be closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<LinkedHashMap<String, String>> streamDataFromDbWithColumnNames(String sql, int fetchSize,
+      Object... params) {
+    return streamQuery(sql, fetchSize, params, (resultSet, columns) -> {
+      LinkedHashMap<String, String> row = new LinkedHashMap<>(columns.count() * 4 / 3 + 1);
+      for (int i = 1; i <= columns.count(); i++) {
+        row.put(columns.name(i), columns.value(resultSet, i));
+      }
+      return row;
+    });
+  }
+
+  /**
+   * This method executes an SQL query and reads the whole result with the given
+   * decoder. Queries with parameters run on a cached PreparedStatement, others
+   * on a statement that is closed once the result is read. A pooled connection
+   * is returned before the result is returned. A positive maxRows limits the
+   * rows the driver fetches, zero reads all rows.
+   */
+  private <R> R executeQuery(String sql, Object[] params, int maxRows, Function<ResultSet, R> decoder,
+      Supplier<R> empty) {
+    logQuery(sql, params);
+    Connection queryConnection = null;
+    Statement queryStatement = null;
+    StatementCache cache = null;
+    try {
+      queryConnection = acquireConnection();
+      if (params.length == 0) {
+        queryStatement = queryConnection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        queryStatement.setMaxRows(maxRows);
+        return decoder.apply(queryStatement.executeQuery(sql));
+      }
+      cache = statementCache(queryConnection);
+      PreparedStatement preparedStatement = cache.prepare(sql);
+      preparedStatement.setMaxRows(maxRows);
+      bind(preparedStatement, params);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        return decoder.apply(resultSet);
+      }
+    } catch (SQLException e) {
+      Log.error("Error executing the query: " + sql + "\n", e);
+      if (cache != null)
+        cache.invalidate(sql);
+      return empty.get();
+    } finally {
+      close(queryStatement);
+      releaseConnection(queryConnection);
+    }
+  }
+
+  private StatementCache statementCache(Connection queryConnection) {
+    return pool != null ? ConnectionPool.statementCache(queryConnection) : statements;
+  }
+
+  private static void bind(PreparedStatement preparedStatement, Object[] params) throws SQLException {
+    for (int i = 0; i < params.length; i++) {
+      if (params[i] == null)
+        preparedStatement.setNull(i + 1, Types.NULL);
+      else
+        preparedStatement.setObject(i + 1, params[i]);
+    }
+  }
+
+  private static void logQuery(String sql, Object[] params) {
+    if (params.length == 0)
+      Log.info("Query: " + sql);
+    else
+      Log.info("Query: " + sql + " with parameters " + Arrays.toString(params));
+  }
+
+  /**
+   * This method executes an SQL query on its own forward-only, read-only
+   * statement and returns a Stream reading the rows as it is consumed. Closing
+   * the Stream closes the ResultSet and the statement.
+   */
+  private <T> Stream<T> streamQuery(String sql, int fetchSize, Object[] params, RowReader<T> rowReader) {
+    logQuery(sql, params);
+    Connection cursorConnection = null;
+    Statement cursorStatement = null;
+    ResultSet resultSet;
+    Columns columns;
+    try {
+      cursorConnection = acquireConnection();
+      if (params.length == 0) {
+        cursorStatement = cursorConnection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        cursorStatement.setFetchSize(fetchSize);
+        resultSet = cursorStatement.executeQuery(sql);
+      } else {
+        PreparedStatement preparedStatement = cursorConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY);
+        cursorStatement = preparedStatement;
+        preparedStatement.setFetchSize(fetchSize);
+        bind(preparedStatement, params);
+        resultSet = preparedStatement.executeQuery();
+      }
+      columns = new Columns(resultSet.getMetaData());
+    } catch (SQLException e) {
+      Log.error("Error executing the query: " + sql + "\n", e);
+      close(cursorStatement);
+      releaseConnection(cursorConnection);
+      return Stream.empty();
+    }
+    Connection openConnection = cursorConnection;
+    Statement openStatement = cursorStatement;
+    long[] rows = new long[1];
+    Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+          if (!resultSet.next())
+            return false;
+          rows[0]++;
+          action.accept(rowReader.read(resultSet, columns));
+          return true;
+        } catch (SQLException e) {
+          Log.error("Error parsing the result-set...", e);
+          throw new IllegalStateException("Error reading the result of query: " + sql, e);
+        }
+      }
+    };
+    return StreamSupport.stream(spliterator, false).onClose(() -> {
+      close(openStatement);
+      releaseConnection(openConnection);
+      Log.info("Rows streamed from DB: " + rows[0]);
+    });
+  }
+
+  /**
+   * Returns the connection to query with: a connection borrowed from the pool,
+   * or the connection passed to the constructor.
+   */
+  private Connection acquireConnection() throws SQLException {
+    if (pool != null)
+      return pool.getConnection();
+    if (connection == null)
+      throw new SQLException("No connection passed to DatabaseUtils");
+    return connection;
+  }
+
+  /**
+   * Returns a borrowed connection to the pool, the connection passed to the
+   * constructor stays open.
+   */
+  private void releaseConnection(Connection queryConnection) {
+    if (pool == null || queryConnection == null)
+      return;
+    try {
+      queryConnection.close();
+    } catch (SQLException e) {
+      Log.error("Error returning the connection to the pool...", e);
+    }
+  }
+
+  private static void close(Statement statement) {
+    if (statement == null)
+      return;
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      Log.error("Error closing the statement...", e);
+    }
+  }
+
   /**
    * This method is a utility method to parse the resultSet to List of
    * LinkedHashMap format
@@ -183,19 +585,12 @@ public class DatabaseUtils {
   private List<LinkedHashMap<String, String>> readResultSetWithColumnNames(ResultSet resultSet) {
     List<LinkedHashMap<String, String>> result = new ArrayList<>();
     try {
-      resultSet.beforeFirst();
+      Columns columns = new Columns(resultSet.getMetaData());
+      int capacity = columns.count() * 4 / 3 + 1;
       while (resultSet.next()) {
-        LinkedHashMap<String, String> row = new LinkedHashMap<>();
-        int columns = resultSet.getMetaData().getColumnCount();
-        for (int i = 1; i <= columns; i++) {
-          String key = resultSet.getMetaData().getColumnName(i);
-          String value;
-          if (resultSet.getMetaData().getColumnType(i) == Types.VARBINARY) {
-            value = String.valueOf(resultSet.getObject(i, UUID.class));
-          } else {
-            value = String.valueOf(resultSet.getObject(i));
-          }
-          row.put(key, value);
+        LinkedHashMap<String, String> row = new LinkedHashMap<>(capacity);
+        for (int i = 1; i <= columns.count(); i++) {
+          row.put(columns.name(i), columns.value(resultSet, i));
         }
         result.add(row);
       }
@@ -218,18 +613,11 @@ public class DatabaseUtils {
   private List<List<String>> readResultSet(ResultSet resultSet) {
     List<List<String>> result = new ArrayList<>();
     try {
-      resultSet.beforeFirst();
+      Columns columns = new Columns(resultSet.getMetaData());
       while (resultSet.next()) {
-        List<String> row = new ArrayList<>();
-        int columns = resultSet.getMetaData().getColumnCount();
-        for (int i = 1; i <= columns; i++) {
-          String value;
-          if (resultSet.getMetaData().getColumnType(i) == Types.VARBINARY) {
-            value = String.valueOf(resultSet.getObject(i, UUID.class));
-          } else {
-            value = String.valueOf(resultSet.getObject(i));
-          }
-          row.add(value);
+        List<String> row = new ArrayList<>(columns.count());
+        for (int i = 1; i <= columns.count(); i++) {
+          row.add(columns.value(resultSet, i));
         }
         result.add(row);
       }
@@ -239,4 +627,81 @@ public class DatabaseUtils {
     Log.info("Data fetched from DB: " + result);
     return result;
   }
-}
\ No newline at end of file
+
+  /**
+   * This method is a utility method to parse the resultSet to a DbTable, one
+   * String array per row under the shared column names
+   *
+   * @param resultSet
+   *            ResultSet object
+   * @return A DbTable of the rows
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private DbTable readResultSetAsTable(ResultSet resultSet) {
+    Columns columns;
+    try {
+      columns = new Columns(resultSet.getMetaData());
+    } catch (SQLException e) {
+      Log.error("Error parsing the result-set...", e);
+      return new DbTable(new String[0], new ArrayList<>());
+    }
+    List<String[]> rows = new ArrayList<>();
+    try {
+      while (resultSet.next()) {
+        String[] row = new String[columns.count()];
+        for (int i = 1; i <= columns.count(); i++) {
+          row[i - 1] = columns.value(resultSet, i);
+        }
+        rows.add(row);
+      }
+    } catch (SQLException e) {
+      Log.error("Error parsing the result-set...", e);
+    }
+    DbTable table = new DbTable(columns.names(), rows);
+    Log.info("Data fetched from DB: " + table);
+    return table;
+  }
+
+  /**
+   * Reads one row of a ResultSet.
+   */
+  private interface RowReader<T> {
+    T read(ResultSet resultSet, Columns columns) throws SQLException;
+  }
+
+  /**
+   * Column names and types of a ResultSet, read from its metadata once.
+   */
+  private static final class Columns {
+    private final String[] names;
+    private final boolean[] uuid;
+
+    Columns(ResultSetMetaData metaData) throws SQLException {
+      int count = metaData.getColumnCount();
+      names = new String[count + 1];
+      uuid = new boolean[count + 1];
+      for (int i = 1; i <= count; i++) {
+        names[i] = metaData.getColumnName(i);
+        uuid[i] = metaData.getColumnType(i) == Types.VARBINARY;
+      }
+    }
+
+    int count() {
+      return names.length - 1;
+    }
+
+    String name(int column) {
+      return names[column];
+    }
+
+    String[] names() {
+      return Arrays.copyOfRange(names, 1, names.length);
+    }
+
+    String value(ResultSet resultSet, int column) throws SQLException {
+      return uuid[column]
+          ? String.valueOf(resultSet.getObject(column, UUID.class))
+          : String.valueOf(resultSet.getObject(column));
+    }
+  }
+}
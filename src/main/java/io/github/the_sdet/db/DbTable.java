@@ -0,0 +1,194 @@
+package io.github.the_sdet.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A compact, read-only query result. All rows share one schema of column names
+ * and every row is a plain String array, so large results cost one array per
+ * row instead of one map with its entries per row.
+ * <p>
+ * Values are read as {@link DatabaseUtils#readDataFromDb(String)} reads them,
+ * i.e. as {@code String.valueOf} of the column value.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class DbTable {
+  private final String[] columnNames;
+  private final Map<String, Integer> columnIndex;
+  private final List<String[]> rows;
+
+  DbTable(String[] columnNames, List<String[]> rows) {
+    this.columnNames = columnNames;
+    this.rows = rows;
+    this.columnIndex = new HashMap<>(columnNames.length * 2);
+    for (int i = columnNames.length - 1; i >= 0; i--) {
+      columnIndex.put(columnNames[i], i);
+      columnIndex.putIfAbsent(columnNames[i].toLowerCase(Locale.ROOT), i);
+    }
+  }
+
+  /**
+   * Returns the column names in query order.
+   *
+   * @return List of column names
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getColumnNames() {
+    return Collections.unmodifiableList(Arrays.asList(columnNames));
+  }
+
+  /**
+   * Returns the position of a column, matching the name exactly or else ignoring
+   * case.
+   *
+   * @param columnName
+   *            column name
+   * @return zero based column index, -1 if there is no such column
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getColumnIndex(String columnName) {
+    Integer index = columnIndex.get(columnName);
+    if (index == null)
+      index = columnIndex.get(columnName.toLowerCase(Locale.ROOT));
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Returns the number of columns.
+   *
+   * @return column count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getColumnCount() {
+    return columnNames.length;
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return row count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getRowCount() {
+    return rows.size();
+  }
+
+  /**
+   * Returns whether the query returned no rows.
+   *
+   * @return true if there are no rows
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isEmpty() {
+    return rows.isEmpty();
+  }
+
+  /**
+   * Returns a value by row and column position.
+   *
+   * @param row
+   *            zero based row index
+   * @param column
+   *            zero based column index
+   * @return value
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getValue(int row, int column) {
+    return rows.get(row)[column];
+  }
+
+  /**
+   * Returns a value by row position and column name.
+   *
+   * @param row
+   *            zero based row index
+   * @param columnName
+   *            column name
+   * @return value
+   * @throws IllegalArgumentException
+   *             if there is no such column
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getValue(int row, String columnName) {
+    return rows.get(row)[requireColumn(columnName)];
+  }
+
+  /**
+   * Returns a row as a read-only List view, without copying it.
+   *
+   * @param row
+   *            zero based row index
+   * @return values of the row
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getRow(int row) {
+    return Collections.unmodifiableList(Arrays.asList(rows.get(row)));
+  }
+
+  /**
+   * Returns a copy of a row as a LinkedHashMap of column names and values, the
+   * format of {@link DatabaseUtils#readDataFromDbWithColumnNames(String)}.
+   *
+   * @param row
+   *            zero based row index
+   * @return column names and values of the row
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LinkedHashMap<String, String> getRowAsMap(int row) {
+    String[] values = rows.get(row);
+    LinkedHashMap<String, String> map = new LinkedHashMap<>(columnNames.length * 4 / 3 + 1);
+    for (int i = 0; i < columnNames.length; i++)
+      map.put(columnNames[i], values[i]);
+    return map;
+  }
+
+  /**
+   * Returns all values of a column.
+   *
+   * @param columnName
+   *            column name
+   * @return values of the column, in row order
+   * @throws IllegalArgumentException
+   *             if there is no such column
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getColumn(String columnName) {
+    int column = requireColumn(columnName);
+    List<String> values = new ArrayList<>(rows.size());
+    for (String[] row : rows)
+      values.add(row[column]);
+    return values;
+  }
+
+  /**
+   * Streams the rows as read-only List views.
+   *
+   * @return Stream of rows
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<List<String>> stream() {
+    return IntStream.range(0, rows.size()).mapToObj(this::getRow);
+  }
+
+  @Override
+  public String toString() {
+    return "DbTable{columns=" + Arrays.toString(columnNames) + ", rows=" + rows.size() + "}";
+  }
+
+  private int requireColumn(String columnName) {
+    int column = getColumnIndex(columnName);
+    if (column < 0)
+      throw new IllegalArgumentException("No column '" + columnName + "' in " + Arrays.toString(columnNames));
+    return column;
+  }
+}
@@ -0,0 +1,93 @@
+package io.github.the_sdet.db;
+
+import io.github.the_sdet.logger.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of the {@link PreparedStatement}s of one
+ * connection, so a parameterized query run again and again is parsed and
+ * planned by the server only once. Evicted statements are closed.
+ * <p>
+ * Statements are prepared forward-only and read-only. A cached statement must
+ * only be used by one thread at a time, like the connection it belongs to.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+final class StatementCache {
+  /**
+   * Default number of prepared statements kept per connection.
+   */
+  static final int DEFAULT_MAX_SIZE = 64;
+
+  private final Connection connection;
+  private final Map<String, PreparedStatement> statements;
+  private long hits;
+  private long misses;
+
+  StatementCache(Connection connection, int maxSize) {
+    this.connection = connection;
+    this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+        if (size() <= maxSize)
+          return false;
+        close(eldest.getValue());
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached statement for the SQL, preparing it on first use. The
+   * parameters of a cached statement are cleared.
+   */
+  synchronized PreparedStatement prepare(String sql) throws SQLException {
+    PreparedStatement statement = statements.get(sql);
+    if (statement != null && !statement.isClosed()) {
+      hits++;
+      statement.clearParameters();
+      return statement;
+    }
+    misses++;
+    statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    statements.put(sql, statement);
+    return statement;
+  }
+
+  /**
+   * Removes and closes the statement of the SQL, e.g. after it failed.
+   */
+  synchronized void invalidate(String sql) {
+    PreparedStatement statement = statements.remove(sql);
+    if (statement != null)
+      close(statement);
+  }
+
+  /**
+   * Closes all cached statements.
+   */
+  synchronized void close() {
+    for (PreparedStatement statement : statements.values())
+      close(statement);
+    statements.clear();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "StatementCache{size=" + statements.size() + ", hits=" + hits + ", misses=" + misses + "}";
+  }
+
+  private static void close(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      Log.error("Error closing the prepared statement...", e);
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package io.github.the_sdet.excel;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.SAXException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted handle to an opened .xlsx package shared through the
+ * {@link WorkbookCache}. The package, its shared strings, the sheet parts and
+ * the sheet indexes are created lazily, once, and then reused by every caller.
+ * <p>
+ * The cache holds one reference and every {@link WorkbookCache#acquire(String)}
+ * adds one; {@link #close()} gives a reference back. The file handle is
+ * released when the last reference is gone, so an entry evicted from the cache
+ * stays usable until all readers of it are done.
+ * <p>
+ * Sheet indexes hold every cell value of their sheet and live as long as the
+ * handle, i.e. while the file stays in the cache (8 files by default) or is in
+ * use.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+final class CachedWorkbook implements Closeable {
+  private final String filepath;
+  private final OPCPackage pkg;
+  private final AtomicInteger refCount = new AtomicInteger(1);
+  private volatile ReadOnlySharedStringsTable sharedStrings;
+  private volatile Map<String, PackagePart> sheetParts;
+  private final Map<String, FutureTask<ExcelSheetIndex>> sheetIndexes = new ConcurrentHashMap<>();
+
+  private CachedWorkbook(String filepath, OPCPackage pkg) {
+    this.filepath = filepath;
+    this.pkg = pkg;
+  }
+
+  /**
+   * Opens the package of an Excel file in read only mode.
+   *
+   * @param filepath
+   *            filename with path
+   * @return handle holding a single reference
+   * @throws IOException
+   *             if the file cannot be opened
+   */
+  static CachedWorkbook open(String filepath) throws IOException {
+    try {
+      return new CachedWorkbook(filepath, OPCPackage.open(new File(filepath), PackageAccess.READ));
+    } catch (OpenXML4JException e) {
+      throw new IOException("Unable to read Excel file: " + filepath, e);
+    }
+  }
+
+  /**
+   * Returns the file path this workbook was opened from.
+   *
+   * @return filename with path
+   */
+  String getFilepath() {
+    return filepath;
+  }
+
+  /**
+   * Returns the opened package.
+   *
+   * @return read only package
+   */
+  OPCPackage getPackage() {
+    return pkg;
+  }
+
+  /**
+   * Returns the shared strings table of the workbook, parsed on first use.
+   *
+   * @return shared strings table
+   * @throws IOException
+   *             if the shared strings part cannot be read
+   */
+  ReadOnlySharedStringsTable getSharedStrings() throws IOException {
+    ReadOnlySharedStringsTable result = sharedStrings;
+    if (result == null) {
+      synchronized (this) {
+        result = sharedStrings;
+        if (result == null) {
+          try {
+            sharedStrings = result = new ReadOnlySharedStringsTable(pkg);
+          } catch (SAXException e) {
+            throw new IOException("Unable to read Excel file: " + filepath, e);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the names of all sheets in workbook order.
+   *
+   * @return sheet names
+   * @throws IOException
+   *             if the workbook part cannot be read
+   */
+  List<String> getSheetNames() throws IOException {
+    return new ArrayList<>(getSheetParts().keySet());
+  }
+
+  /**
+   * Opens a new input stream over the XML part of a sheet.
+   *
+   * @param sheetName
+   *            name of the sheet
+   * @return input stream of the sheet XML
+   * @throws IOException
+   *             if the part cannot be read or the sheet does not exist
+   */
+  InputStream openSheet(String sheetName) throws IOException {
+    PackagePart part = getSheetParts().get(sheetName);
+    if (part == null)
+      throw new IOException("Sheet '" + sheetName + "' not found in Excel file: " + filepath);
+    return part.getInputStream();
+  }
+
+  /**
+   * Returns the index of a sheet, building it with one streaming pass on first
+   * use. The first caller builds the index outside of the index map, callers
+   * asking for the same sheet meanwhile wait for it, callers asking for other
+   * sheets do not. A failed build is not cached.
+   *
+   * @param sheetName
+   *            name of the sheet
+   * @return index of the sheet
+   * @throws IOException
+   *             if the sheet cannot be read or does not exist
+   */
+  ExcelSheetIndex getSheetIndex(String sheetName) throws IOException {
+    FutureTask<ExcelSheetIndex> index = sheetIndexes.get(sheetName);
+    if (index == null) {
+      FutureTask<ExcelSheetIndex> task = new FutureTask<>(() -> buildSheetIndex(sheetName));
+      index = sheetIndexes.putIfAbsent(sheetName, task);
+      if (index == null) {
+        index = task;
+        task.run();
+      }
+    }
+    try {
+      return index.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while indexing sheet '" + sheetName + "' of: " + filepath);
+    } catch (ExecutionException e) {
+      sheetIndexes.remove(sheetName, index);
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException("Unable to index sheet '" + sheetName + "' of: " + filepath, cause);
+    }
+  }
+
+  private ExcelSheetIndex buildSheetIndex(String sheetName) throws IOException {
+    if (!retain())
+      throw new IOException("Excel file was already released: " + filepath);
+    ExcelSheetReader reader;
+    try {
+      reader = ExcelSheetReader.open(this, sheetName);
+    } catch (IOException | RuntimeException e) {
+      close();
+      throw e;
+    }
+    try (reader) {
+      return ExcelSheetIndex.build(reader);
+    }
+  }
+
+  /**
+   * Adds a reference unless the handle has already been released completely.
+   *
+   * @return true if a reference was added, false if the handle is closed
+   */
+  boolean retain() {
+    while (true) {
+      int count = refCount.get();
+      if (count <= 0)
+        return false;
+      if (refCount.compareAndSet(count, count + 1))
+        return true;
+    }
+  }
+
+  /**
+   * Gives back one reference and releases the file once no reference is left.
+   */
+  @Override
+  public void close() {
+    if (refCount.decrementAndGet() == 0)
+      pkg.revert();
+  }
+
+  private Map<String, PackagePart> getSheetParts() throws IOException {
+    Map<String, PackagePart> result = sheetParts;
+    if (result == null) {
+      synchronized (this) {
+        result = sheetParts;
+        if (result == null) {
+          result = new LinkedHashMap<>();
+          try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (sheets.hasNext()) {
+              sheets.next().close();
+              result.put(sheets.getSheetName(), sheets.getSheetPart());
+            }
+          } catch (OpenXML4JException e) {
+            throw new IOException("Unable to read Excel file: " + filepath, e);
+          }
+          sheetParts = result = Collections.unmodifiableMap(result);
+        }
+      }
+    }
+    return result;
+  }
+}
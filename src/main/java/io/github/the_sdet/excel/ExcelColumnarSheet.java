@@ -0,0 +1,408 @@
+package io.github.the_sdet.excel;
+
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static io.github.the_sdet.common.CommonUtils.EMPTY_STRING;
+
+/**
+ * Column oriented, primitive typed view of the data rows of a sheet. The first
+ * row is taken as header row and every column is stored as a single primitive
+ * array, so numeric test data is neither boxed nor converted to String and
+ * parsed back.
+ * <p>
+ * The type of each column is inferred from its non-blank cells: NUMERIC cells
+ * give a {@link ColumnType#LONG} column if all values are whole numbers and a
+ * {@link ColumnType#DOUBLE} column otherwise, BOOLEAN cells give a
+ * {@link ColumnType#BOOLEAN} column and any other mix gives a
+ * {@link ColumnType#STRING} column. Blank cells are recorded in a null mask per
+ * column.
+ * <p>
+ * Arrays returned by the getters are the internal storage and must not be
+ * modified. Instances are safe to share between threads.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ExcelColumnarSheet {
+  /**
+   * Storage type of a column.
+   */
+  public enum ColumnType {
+    /**
+     * Whole numbers, stored as long[]
+     */
+    LONG,
+    /**
+     * Decimal numbers, stored as double[]
+     */
+    DOUBLE,
+    /**
+     * Booleans, stored as boolean[]
+     */
+    BOOLEAN,
+    /**
+     * Text or mixed values, stored as String[]
+     */
+    STRING
+  }
+
+  private final List<String> headers;
+  private final Map<String, Integer> columnsByHeader;
+  private final Column[] columns;
+  private final int rowCount;
+
+  private ExcelColumnarSheet(List<String> headers, Column[] columns, int rowCount) {
+    this.headers = Collections.unmodifiableList(headers);
+    this.columns = columns;
+    this.rowCount = rowCount;
+    this.columnsByHeader = new HashMap<>();
+    for (int j = 0; j < headers.size(); j++) {
+      columnsByHeader.putIfAbsent(normalize(headers.get(j)), j);
+    }
+  }
+
+  /**
+   * Reads all data rows of a sheet into typed columns.
+   *
+   * @param reader
+   *            reader positioned before the header row, it is read to the end
+   *            but not closed
+   * @return columnar data of the sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ExcelColumnarSheet build(ExcelSheetReader reader) throws IOException {
+    List<String> headers = new ArrayList<>();
+    if (reader.nextRow()) {
+      for (int j = 0; j < reader.getCellCount(); j++) {
+        headers.add(reader.getStringValue(j));
+      }
+    }
+    ColumnBuilder[] builders = new ColumnBuilder[headers.size()];
+    for (int j = 0; j < builders.length; j++) {
+      builders[j] = new ColumnBuilder();
+    }
+    int row = 0;
+    while (reader.nextRow()) {
+      for (int j = 0; j < builders.length; j++) {
+        builders[j].add(row, reader.getCellType(j), reader.getRawValue(j));
+      }
+      row++;
+    }
+    Column[] columns = new Column[builders.length];
+    for (int j = 0; j < builders.length; j++) {
+      columns[j] = builders[j].build(row);
+    }
+    return new ExcelColumnarSheet(headers, columns, row);
+  }
+
+  /**
+   * Returns the number of data rows, i.e. rows after the header row.
+   *
+   * @return number of data rows
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the column headers.
+   *
+   * @return List of header strings
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Returns the inferred storage type of a column.
+   *
+   * @param columnHeader
+   *            header name
+   * @return type of the column
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ColumnType getColumnType(String columnHeader) {
+    return column(columnHeader).type;
+  }
+
+  /**
+   * Returns a LONG column.
+   *
+   * @param columnHeader
+   *            header name
+   * @return values of the column, 0 for blank cells
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long[] getLongColumn(String columnHeader) {
+    return column(columnHeader, ColumnType.LONG).longs;
+  }
+
+  /**
+   * Returns a DOUBLE column. LONG columns are widened to double.
+   *
+   * @param columnHeader
+   *            header name
+   * @return values of the column, 0.0 for blank cells
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double[] getDoubleColumn(String columnHeader) {
+    Column column = column(columnHeader);
+    if (column.type == ColumnType.LONG) {
+      double[] widened = new double[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        widened[i] = column.longs[i];
+      }
+      return widened;
+    }
+    return column(columnHeader, ColumnType.DOUBLE).doubles;
+  }
+
+  /**
+   * Returns a BOOLEAN column.
+   *
+   * @param columnHeader
+   *            header name
+   * @return values of the column, false for blank cells
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean[] getBooleanColumn(String columnHeader) {
+    return column(columnHeader, ColumnType.BOOLEAN).booleans;
+  }
+
+  /**
+   * Returns a column of any type as String values, formatted the same way as
+   * {@link ExcelUtils#readExcelSheet(String, String)} does it.
+   *
+   * @param columnHeader
+   *            header name
+   * @return values of the column, empty for blank cells
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String[] getStringColumn(String columnHeader) {
+    Column column = column(columnHeader);
+    if (column.type == ColumnType.STRING)
+      return column.strings;
+    String[] values = new String[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      values[i] = column.format(i);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the null mask of a column, a set bit marks a blank cell.
+   *
+   * @param columnHeader
+   *            header name
+   * @return copy of the null mask
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public BitSet getNullMask(String columnHeader) {
+    return (BitSet) column(columnHeader).nulls.clone();
+  }
+
+  /**
+   * Checks if a cell is blank.
+   *
+   * @param columnHeader
+   *            header name
+   * @param row
+   *            data row index, 0 is the first row after the header row
+   * @return true if the cell is blank
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isNull(String columnHeader, int row) {
+    return column(columnHeader).nulls.get(row);
+  }
+
+  private Column column(String columnHeader) {
+    Integer index = columnsByHeader.get(normalize(columnHeader));
+    if (index == null)
+      throw new IllegalArgumentException("Column '" + columnHeader + "' not found in headers: " + headers);
+    return columns[index];
+  }
+
+  private Column column(String columnHeader, ColumnType expected) {
+    Column column = column(columnHeader);
+    if (column.type != expected)
+      throw new IllegalStateException(
+          "Column '" + columnHeader + "' is of type " + column.type + " and not " + expected);
+    return column;
+  }
+
+  private static String normalize(String key) {
+    return key.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Finished column, only the array matching its type is set.
+   */
+  private static final class Column {
+    final ColumnType type;
+    final long[] longs;
+    final double[] doubles;
+    final boolean[] booleans;
+    final String[] strings;
+    final BitSet nulls;
+
+    Column(ColumnType type, long[] longs, double[] doubles, boolean[] booleans, String[] strings, BitSet nulls) {
+      this.type = type;
+      this.longs = longs;
+      this.doubles = doubles;
+      this.booleans = booleans;
+      this.strings = strings;
+      this.nulls = nulls;
+    }
+
+    String format(int row) {
+      if (nulls.get(row))
+        return EMPTY_STRING;
+      switch (type) {
+        case LONG :
+          return String.valueOf((double) longs[row]);
+        case DOUBLE :
+          return String.valueOf(doubles[row]);
+        case BOOLEAN :
+          return booleans[row] ? "TRUE" : "FALSE";
+        default :
+          return strings[row];
+      }
+    }
+  }
+
+  /**
+   * Growing column storage which starts untyped and widens to STRING as soon as
+   * it sees values of different types.
+   */
+  private static final class ColumnBuilder {
+    private ColumnType type;
+    private double[] doubles;
+    private boolean[] booleans;
+    private String[] strings;
+    private boolean integral = true;
+    private final BitSet nulls = new BitSet();
+
+    void add(int row, CellType cellType, String raw) {
+      switch (cellType) {
+        case BLANK :
+        case _NONE :
+          nulls.set(row);
+          return;
+        case NUMERIC :
+          double number = Double.parseDouble(raw);
+          if (type == null)
+            type = ColumnType.DOUBLE;
+          if (type == ColumnType.DOUBLE) {
+            ensureCapacity(row);
+            doubles[row] = number;
+            integral &= number == Math.rint(number) && Math.abs(number) < 0x1p63;
+            return;
+          }
+          addString(row, String.valueOf(number));
+          return;
+        case BOOLEAN :
+          boolean bool = "1".equals(raw);
+          if (type == null)
+            type = ColumnType.BOOLEAN;
+          if (type == ColumnType.BOOLEAN) {
+            ensureCapacity(row);
+            booleans[row] = bool;
+            return;
+          }
+          addString(row, bool ? "TRUE" : "FALSE");
+          return;
+        default :
+          addString(row, raw.trim());
+      }
+    }
+
+    Column build(int rowCount) {
+      if (type == null)
+        type = ColumnType.STRING;
+      ensureCapacity(rowCount - 1);
+      switch (type) {
+        case DOUBLE :
+          if (integral) {
+            long[] longs = new long[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+              longs[i] = (long) doubles[i];
+            }
+            return new Column(ColumnType.LONG, longs, null, null, null, nulls);
+          }
+          return new Column(type, null, Arrays.copyOf(doubles, rowCount), null, null, nulls);
+        case BOOLEAN :
+          return new Column(type, null, null, Arrays.copyOf(booleans, rowCount), null, nulls);
+        default :
+          String[] values = Arrays.copyOf(strings, rowCount);
+          for (int i = nulls.nextSetBit(0); i >= 0 && i < rowCount; i = nulls.nextSetBit(i + 1)) {
+            values[i] = EMPTY_STRING;
+          }
+          return new Column(ColumnType.STRING, null, null, null, values, nulls);
+      }
+    }
+
+    private void addString(int row, String value) {
+      if (type != ColumnType.STRING)
+        widenToString(row);
+      ensureCapacity(row);
+      strings[row] = value;
+    }
+
+    /**
+     * Converts the values collected so far to String, as the column turned out
+     * to hold mixed types.
+     */
+    private void widenToString(int row) {
+      String[] values = new String[Math.max(row + 1, 16)];
+      for (int i = 0; i < row; i++) {
+        if (nulls.get(i))
+          continue;
+        if (type == ColumnType.DOUBLE)
+          values[i] = String.valueOf(doubles[i]);
+        else if (type == ColumnType.BOOLEAN)
+          values[i] = booleans[i] ? "TRUE" : "FALSE";
+      }
+      type = ColumnType.STRING;
+      doubles = null;
+      booleans = null;
+      strings = values;
+    }
+
+    private void ensureCapacity(int row) {
+      int size = Math.max(row + 1, 16);
+      switch (type) {
+        case DOUBLE :
+          if (doubles == null)
+            doubles = new double[size];
+          else if (row >= doubles.length)
+            doubles = Arrays.copyOf(doubles, Math.max(size, doubles.length * 2));
+          break;
+        case BOOLEAN :
+          if (booleans == null)
+            booleans = new boolean[size];
+          else if (row >= booleans.length)
+            booleans = Arrays.copyOf(booleans, Math.max(size, booleans.length * 2));
+          break;
+        default :
+          if (strings == null)
+            strings = new String[size];
+          else if (row >= strings.length)
+            strings = Arrays.copyOf(strings, Math.max(size, strings.length * 2));
+      }
+    }
+  }
+}
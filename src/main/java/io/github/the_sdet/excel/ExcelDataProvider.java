@@ -0,0 +1,200 @@
+package io.github.the_sdet.excel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy data provider over the rows of an Excel sheet for data driven and
+ * parallel test runners. Rows are decoded with the streaming reader only when
+ * they are requested and handed out one by one or in chunks, so the first
+ * tests can start while the rest of the sheet is still being read. All methods
+ * are thread safe.
+ * <p>
+ * As a TestNG data provider:
+ *
+ * <pre>
+ * &#64;DataProvider(parallel = true)
+ * public Iterator&lt;Object[]&gt; testData() throws IOException {
+ *   return new ExcelDataProvider(filepath, sheetName);
+ * }
+ * </pre>
+ * <p>
+ * As a JUnit 5 method source or for a parallel stream, use {@link #stream()},
+ * which splits into chunks of rows across worker threads.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ExcelDataProvider implements Iterator<Object[]>, Closeable {
+  /**
+   * Default number of rows handed out per chunk.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 64;
+
+  private final Stream<Map<String, String>> source;
+  private final Iterator<Map<String, String>> rows;
+  private final int chunkSize;
+  private boolean closed;
+
+  /**
+   * Creates a data provider over the data rows of a sheet, handing out chunks
+   * of the default size.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelDataProvider(String filepath, String sheetName) throws IOException {
+    this(filepath, sheetName, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates a data provider over the data rows of a sheet.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @param chunkSize
+   *            number of rows handed out per chunk
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelDataProvider(String filepath, String sheetName, int chunkSize) throws IOException {
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("Chunk size must be at least 1 but was: " + chunkSize);
+    this.source = ExcelUtils.streamExcelSheet(filepath, sheetName);
+    this.rows = source.iterator();
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Checks if there are rows left.
+   *
+   * @return true if there are rows left
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public synchronized boolean hasNext() {
+    return !closed && rows.hasNext();
+  }
+
+  /**
+   * Returns the next row as single parameter array, as expected by TestNG data
+   * providers.
+   *
+   * @return array holding the row map
+   * @throws NoSuchElementException
+   *             if there are no rows left or the provider is closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public synchronized Object[] next() {
+    return new Object[]{nextRow()};
+  }
+
+  /**
+   * Returns the next row.
+   *
+   * @return map with header as key and value for that header and row
+   * @throws NoSuchElementException
+   *             if there are no rows left or the provider is closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public synchronized Map<String, String> nextRow() {
+    if (closed)
+      throw new NoSuchElementException("Excel data provider is closed");
+    return rows.next();
+  }
+
+  /**
+   * Returns the next chunk of rows.
+   *
+   * @return up to chunk size rows, empty if there are no rows left or the
+   *         provider is closed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public synchronized List<Map<String, String>> nextChunk() {
+    if (!hasNext())
+      return Collections.emptyList();
+    List<Map<String, String>> chunk = new ArrayList<>(chunkSize);
+    while (chunk.size() < chunkSize && rows.hasNext()) {
+      chunk.add(rows.next());
+    }
+    return chunk;
+  }
+
+  /**
+   * Returns the remaining rows as a stream that splits into chunks, so a
+   * parallel stream spreads the rows across worker threads as soon as each
+   * chunk is decoded. Closing the stream closes this provider.
+   *
+   * @return stream of the remaining rows
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<Map<String, String>> stream() {
+    return StreamSupport.stream(new ChunkSpliterator(), false).onClose(this::close);
+  }
+
+  /**
+   * Stops reading the sheet and releases the Excel file. Waits until a row or
+   * chunk being read by another thread is complete; afterwards no more rows are
+   * handed out, not even one that was already decoded.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    source.close();
+  }
+
+  /**
+   * Spliterator pulling rows from the provider, one at a time on advance and a
+   * whole chunk on split.
+   */
+  private final class ChunkSpliterator implements Spliterator<Map<String, String>> {
+    @Override
+    public boolean tryAdvance(Consumer<? super Map<String, String>> action) {
+      Map<String, String> row;
+      synchronized (ExcelDataProvider.this) {
+        if (!hasNext())
+          return false;
+        row = rows.next();
+      }
+      action.accept(row);
+      return true;
+    }
+
+    @Override
+    public Spliterator<Map<String, String>> trySplit() {
+      List<Map<String, String>> chunk = nextChunk();
+      return chunk.isEmpty() ? null : chunk.spliterator();
+    }
+
+    @Override
+    public long estimateSize() {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+  }
+}
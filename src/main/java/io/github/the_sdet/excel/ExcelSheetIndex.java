@@ -0,0 +1,205 @@
+package io.github.the_sdet.excel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static io.github.the_sdet.common.CommonUtils.EMPTY_STRING;
+
+/**
+ * Immutable, pre-built index over the cell values of a sheet. It is built in a
+ * single streaming pass and keeps a header to column map for the first row and
+ * a key to row map for the first column, so that lookups by header name or row
+ * key take constant time. Equal cell values share a single String instance.
+ * <p>
+ * Header and row key lookups are case-insensitive and ignore surrounding
+ * whitespace; when a header or key occurs more than once the first occurrence
+ * wins. Instances are safe to share between threads.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ExcelSheetIndex {
+  private static final String[] EMPTY_ROW = new String[0];
+
+  private final String[][] rows;
+  private final Map<String, Integer> columnsByHeader;
+  private final Map<String, Integer> rowsByKey;
+
+  private ExcelSheetIndex(String[][] rows, Map<String, Integer> columnsByHeader, Map<String, Integer> rowsByKey) {
+    this.rows = rows;
+    this.columnsByHeader = columnsByHeader;
+    this.rowsByKey = rowsByKey;
+  }
+
+  /**
+   * Builds the index of a sheet by reading it once with the streaming reader.
+   *
+   * @param reader
+   *            reader positioned before the first row, it is read to the end
+   *            but not closed
+   * @return index of the sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ExcelSheetIndex build(ExcelSheetReader reader) throws IOException {
+    Map<String, String> internPool = new HashMap<>();
+    String[][] rows = new String[64][];
+    int rowCount = 0;
+    Map<String, Integer> columnsByHeader = new HashMap<>();
+    Map<String, Integer> rowsByKey = new HashMap<>();
+    while (reader.nextRow()) {
+      int rowNum = reader.getRowNum();
+      String[] values = new String[reader.getCellCount()];
+      for (int j = 0; j < values.length; j++) {
+        String value = reader.getStringValue(j);
+        String pooled = internPool.putIfAbsent(value, value);
+        values[j] = pooled == null ? value : pooled;
+      }
+      if (rowNum >= rows.length)
+        rows = Arrays.copyOf(rows, Math.max(rowNum + 1, rows.length * 2));
+      rows[rowNum] = values;
+      rowCount = Math.max(rowCount, rowNum + 1);
+      if (rowNum == 0) {
+        for (int j = 0; j < values.length; j++) {
+          columnsByHeader.putIfAbsent(normalize(values[j]), j);
+        }
+      }
+      if (values.length > 0)
+        rowsByKey.putIfAbsent(normalize(values[0]), rowNum);
+    }
+    return new ExcelSheetIndex(Arrays.copyOf(rows, rowCount), columnsByHeader, rowsByKey);
+  }
+
+  /**
+   * Returns the number of rows, i.e. the index of the last row plus one.
+   *
+   * @return number of rows
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getRowCount() {
+    return rows.length;
+  }
+
+  /**
+   * Returns the values of the first row.
+   *
+   * @return List of header strings
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getHeaders() {
+    return Collections.unmodifiableList(Arrays.asList(row(0)));
+  }
+
+  /**
+   * Returns the index of the column having the given header.
+   *
+   * @param columnHeader
+   *            header name
+   * @return column index or -1 if no column has this header
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getColumnIndex(String columnHeader) {
+    return columnsByHeader.getOrDefault(normalize(columnHeader), -1);
+  }
+
+  /**
+   * Returns the index of the row whose first cell has the given value.
+   *
+   * @param rowHeader
+   *            row header or 1st value of row
+   * @return row index or -1 if no row has this key
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getRowIndex(String rowHeader) {
+    return rowsByKey.getOrDefault(normalize(rowHeader), -1);
+  }
+
+  /**
+   * Returns the value of a cell.
+   *
+   * @param row
+   *            row index
+   * @param column
+   *            column index
+   * @return The string value of the cell, empty if the cell does not exist
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getValue(int row, int column) {
+    String[] values = row(row);
+    return column < values.length ? values[column] : EMPTY_STRING;
+  }
+
+  /**
+   * Returns the value of a cell by row key and column header.
+   *
+   * @param rowHeader
+   *            row header or 1st value of row
+   * @param columnHeader
+   *            header name
+   * @return The string value of the cell, null if the row or column does not
+   *         exist
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getValue(String rowHeader, String columnHeader) {
+    int row = getRowIndex(rowHeader);
+    int column = getColumnIndex(columnHeader);
+    return row < 0 || column < 0 ? null : getValue(row, column);
+  }
+
+  /**
+   * Returns the entries present in a column.
+   *
+   * @param column
+   *            column index
+   * @param skipHeader
+   *            true if header to be excluded
+   * @return List of entries present in the specified column
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ArrayList<String> getValuesOfColumn(int column, boolean skipHeader) {
+    int start = skipHeader ? 1 : 0;
+    ArrayList<String> dataList = new ArrayList<>(Math.max(rows.length - start, 0));
+    for (int i = start; i < rows.length; i++) {
+      dataList.add(getValue(i, column));
+    }
+    return dataList;
+  }
+
+  /**
+   * Returns the entries present in a row.
+   *
+   * @param row
+   *            row index
+   * @param skipFirstColumn
+   *            true if the first column value to be excluded in case there is a
+   *            row header
+   * @return List of entries present in the specified row
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ArrayList<String> getValuesOfRow(int row, boolean skipFirstColumn) {
+    String[] values = row(row);
+    int start = skipFirstColumn ? 1 : 0;
+    ArrayList<String> dataList = new ArrayList<>(Math.max(values.length - start, 0));
+    for (int i = start; i < values.length; i++) {
+      dataList.add(values[i]);
+    }
+    return dataList;
+  }
+
+  private String[] row(int row) {
+    if (row < 0 || row >= rows.length || rows[row] == null)
+      return EMPTY_ROW;
+    return rows[row];
+  }
+
+  private static String normalize(String key) {
+    return key.trim().toLowerCase(Locale.ROOT);
+  }
+}
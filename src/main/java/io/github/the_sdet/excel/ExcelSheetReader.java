@@ -0,0 +1,338 @@
+package io.github.the_sdet.excel;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static io.github.the_sdet.common.CommonUtils.EMPTY_STRING;
+
+/**
+ * Forward-only, row by row reader of a single sheet of an .xlsx file. The sheet
+ * XML is pulled with StAX straight from the package part and shared strings are
+ * resolved through POI's SAX based {@link ReadOnlySharedStringsTable}, so only
+ * the current row is held in memory regardless of the sheet size. Sheet parts
+ * are located with {@code XSSFReader} once per cached workbook.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * try (ExcelSheetReader reader = ExcelSheetReader.open(filepath, sheetName)) {
+ *   while (reader.nextRow()) {
+ *     String value = reader.getStringValue(0);
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ExcelSheetReader implements Closeable {
+  private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+  static {
+    XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  private final CachedWorkbook workbook;
+  private final ReadOnlySharedStringsTable sharedStrings;
+  private final InputStream sheetStream;
+  private final XMLStreamReader xml;
+
+  private int rowNum = -1;
+  private int cellCount;
+  private CellType[] cellTypes = new CellType[16];
+  private String[] rawValues = new String[16];
+  private boolean finished;
+  private boolean closed;
+
+  private ExcelSheetReader(CachedWorkbook workbook, ReadOnlySharedStringsTable sharedStrings,
+      InputStream sheetStream) throws IOException {
+    this.workbook = workbook;
+    this.sharedStrings = sharedStrings;
+    this.sheetStream = sheetStream;
+    try {
+      this.xml = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+    } catch (XMLStreamException e) {
+      throw new IOException("Unable to read Excel file: " + workbook.getFilepath(), e);
+    }
+  }
+
+  /**
+   * Opens a streaming reader over a sheet of an Excel file. The opened file is
+   * shared with the other ExcelUtils methods through the workbook cache.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @return reader positioned before the first row of the sheet
+   * @throws IOException
+   *             if the file cannot be read or the sheet does not exist
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ExcelSheetReader open(String filepath, String sheetName) throws IOException {
+    CachedWorkbook workbook = WorkbookCache.acquire(filepath);
+    try {
+      return open(workbook, sheetName);
+    } catch (IOException e) {
+      workbook.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a streaming reader over a sheet of an already acquired workbook. The
+   * reader takes over the reference of the caller and gives it back on close.
+   */
+  static ExcelSheetReader open(CachedWorkbook workbook, String sheetName) throws IOException {
+    ReadOnlySharedStringsTable sharedStrings = workbook.getSharedStrings();
+    InputStream sheetStream = workbook.openSheet(sheetName);
+    try {
+      return new ExcelSheetReader(workbook, sharedStrings, sheetStream);
+    } catch (IOException e) {
+      sheetStream.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Advances the reader to the next row present in the sheet. Rows that are
+   * entirely absent from the sheet XML are skipped.
+   *
+   * @return true if a row was read, false once the end of the sheet is reached
+   * @throws IOException
+   *             if the sheet XML cannot be parsed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean nextRow() throws IOException {
+    if (finished)
+      return false;
+    try {
+      while (xml.hasNext()) {
+        int event = xml.next();
+        if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+          readRow();
+          return true;
+        }
+        if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName()))
+          break;
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException("Unable to read Excel file: " + workbook.getFilepath(), e);
+    }
+    finished = true;
+    cellCount = 0;
+    return false;
+  }
+
+  /**
+   * Returns the 0-based index of the current row.
+   *
+   * @return row index
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getRowNum() {
+    return rowNum;
+  }
+
+  /**
+   * Returns the number of cells of the current row, i.e. the index of the last
+   * cell plus one, the same as {@code Row.getLastCellNum()}.
+   *
+   * @return number of cells in the current row
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getCellCount() {
+    return cellCount;
+  }
+
+  /**
+   * Returns the type of a cell of the current row. For formula cells the type of
+   * the cached result is returned.
+   *
+   * @param column
+   *            column index
+   * @return type of the cell, BLANK if the cell is not present
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CellType getCellType(int column) {
+    if (column >= cellCount || cellTypes[column] == null)
+      return CellType.BLANK;
+    return cellTypes[column];
+  }
+
+  /**
+   * Returns the value of a cell of the current row as it is stored in the sheet,
+   * e.g. the unformatted number for NUMERIC cells and "1"/"0" for BOOLEAN cells.
+   *
+   * @param column
+   *            column index
+   * @return raw value of the cell, null if the cell is blank
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getRawValue(int column) {
+    if (column >= cellCount)
+      return null;
+    return rawValues[column];
+  }
+
+  /**
+   * Returns the string value of a cell of the current row, formatted the same
+   * way as the other ExcelUtils methods do it.
+   *
+   * @param column
+   *            column index
+   * @return The string value of the cell
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getStringValue(int column) {
+    String raw = getRawValue(column);
+    switch (getCellType(column)) {
+      case NUMERIC :
+        return String.valueOf(Double.parseDouble(raw));
+      case BOOLEAN :
+        return "1".equals(raw) ? "TRUE" : "FALSE";
+      case BLANK :
+      case _NONE :
+        return EMPTY_STRING;
+      default :
+        return raw.trim();
+    }
+  }
+
+  /**
+   * Closes the sheet stream and releases the underlying Excel file.
+   *
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    finished = true;
+    try {
+      xml.close();
+    } catch (XMLStreamException e) {
+      throw new IOException("Unable to close Excel file: " + workbook.getFilepath(), e);
+    } finally {
+      try {
+        sheetStream.close();
+      } finally {
+        workbook.close();
+      }
+    }
+  }
+
+  /**
+   * Reads all cells of the row element the XML reader is positioned on.
+   */
+  private void readRow() throws XMLStreamException {
+    String rowRef = xml.getAttributeValue(null, "r");
+    rowNum = rowRef == null ? rowNum + 1 : Integer.parseInt(rowRef) - 1;
+    Arrays.fill(cellTypes, 0, cellCount, null);
+    Arrays.fill(rawValues, 0, cellCount, null);
+    cellCount = 0;
+    int nextColumn = 0;
+    while (xml.hasNext()) {
+      int event = xml.next();
+      if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+        String cellRef = xml.getAttributeValue(null, "r");
+        int column = cellRef == null ? nextColumn : columnIndex(cellRef);
+        readCell(column, xml.getAttributeValue(null, "t"));
+        nextColumn = column + 1;
+      } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Reads the cell element the XML reader is positioned on and stores its type
+   * and raw value.
+   */
+  private void readCell(int column, String type) throws XMLStreamException {
+    String value = null;
+    StringBuilder inline = null;
+    int phoneticDepth = 0;
+    while (xml.hasNext()) {
+      int event = xml.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String name = xml.getLocalName();
+        if ("v".equals(name)) {
+          value = xml.getElementText();
+        } else if ("rPh".equals(name)) {
+          phoneticDepth++;
+        } else if ("t".equals(name) && phoneticDepth == 0) {
+          if (inline == null)
+            inline = new StringBuilder();
+          inline.append(xml.getElementText());
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        String name = xml.getLocalName();
+        if ("rPh".equals(name))
+          phoneticDepth--;
+        else if ("c".equals(name))
+          break;
+      }
+    }
+    if (inline != null)
+      value = inline.toString();
+
+    CellType cellType;
+    if (value == null || (value.isEmpty() && !"inlineStr".equals(type) && !"str".equals(type))) {
+      cellType = CellType.BLANK;
+      value = null;
+    } else if (type == null || "n".equals(type)) {
+      cellType = CellType.NUMERIC;
+    } else if ("s".equals(type)) {
+      cellType = CellType.STRING;
+      value = sharedStrings.getItemAt(Integer.parseInt(value.trim())).getString();
+    } else if ("b".equals(type)) {
+      cellType = CellType.BOOLEAN;
+    } else if ("e".equals(type)) {
+      cellType = CellType.ERROR;
+    } else {
+      cellType = CellType.STRING;
+    }
+
+    ensureCapacity(column + 1);
+    cellTypes[column] = cellType;
+    rawValues[column] = value;
+    cellCount = Math.max(cellCount, column + 1);
+  }
+
+  private void ensureCapacity(int size) {
+    if (size > cellTypes.length) {
+      int newLength = Math.max(size, cellTypes.length * 2);
+      cellTypes = Arrays.copyOf(cellTypes, newLength);
+      rawValues = Arrays.copyOf(rawValues, newLength);
+    }
+  }
+
+  /**
+   * Converts the column letters of a cell reference like "AB12" to a 0-based
+   * column index.
+   */
+  private static int columnIndex(String cellRef) {
+    int column = 0;
+    for (int i = 0; i < cellRef.length(); i++) {
+      char c = cellRef.charAt(i);
+      if (c < 'A' || c > 'Z')
+        break;
+      column = column * 26 + (c - 'A' + 1);
+    }
+    return column - 1;
+  }
+}
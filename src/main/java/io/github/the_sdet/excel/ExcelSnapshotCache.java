@@ -0,0 +1,305 @@
+package io.github.the_sdet.excel;
+
+import io.github.the_sdet.logger.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk cache of parsed Excel sheets. The result of
+ * {@link ExcelUtils#readExcelSheet(String, String, boolean)} is stored in a
+ * compact binary snapshot named after a hash of the Excel file path, sheet name
+ * and read options, followed by the SHA-256 hash of the Excel file content.
+ * Later runs read the snapshot with a single channel read and decode it
+ * without parsing the Excel file at all. The snapshot file is closed before it
+ * is decoded, so it can be replaced or deleted at any time. When the file
+ * content changes its hash changes too, so the sheet is parsed again, a new
+ * snapshot is written and the stale snapshots of the same sheet are deleted.
+ * <p>
+ * Snapshot layout (big-endian): magic, format version, string table (count,
+ * then length prefixed UTF-8 strings), row count, then per row the number of
+ * entries followed by key and value indexes into the string table.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ExcelSnapshotCache {
+  private static final int MAGIC = 0x54415853;
+  private static final int VERSION = 1;
+  private static final String EXTENSION = ".snap";
+
+  private static volatile Path snapshotDirectory = Paths.get(System.getProperty("java.io.tmpdir"),
+      "test-automation-toolkit", "excel-snapshots");
+
+  /**
+   * Sets the directory snapshots are written to and read from. Default is
+   * test-automation-toolkit/excel-snapshots in the temp directory.
+   *
+   * @param directory
+   *            snapshot directory path
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setSnapshotDirectory(String directory) {
+    snapshotDirectory = Paths.get(directory);
+  }
+
+  /**
+   * Returns the directory snapshots are written to and read from.
+   *
+   * @return snapshot directory path
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String getSnapshotDirectory() {
+    return snapshotDirectory.toString();
+  }
+
+  /**
+   * Reads an Excel sheet from its snapshot, parsing the Excel file and writing
+   * the snapshot only if there is none for the current file content.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @return List of maps representing the data from the Excel sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<Map<String, String>> readExcelSheet(String filepath, String sheetName) throws IOException {
+    return readExcelSheet(filepath, sheetName, false);
+  }
+
+  /**
+   * Reads an Excel sheet from its snapshot, parsing the Excel file and writing
+   * the snapshot only if there is none for the current file content.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @param skipFirstRow
+   *            same as for {@link ExcelUtils#readExcelSheet(String, String, boolean)}
+   * @return List of maps representing the data from the Excel sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<Map<String, String>> readExcelSheet(String filepath, String sheetName, boolean skipFirstRow)
+      throws IOException {
+    Path directory = snapshotDirectory;
+    String source = sourceName(filepath, sheetName, skipFirstRow);
+    Path snapshot = directory.resolve(source + "-" + contentHash(filepath) + EXTENSION);
+    if (Files.isRegularFile(snapshot)) {
+      try {
+        return readSnapshot(snapshot);
+      } catch (IOException | RuntimeException e) {
+        Log.warn("Ignoring unreadable Excel snapshot " + snapshot + ": " + e);
+      }
+    }
+    List<Map<String, String>> dataSet = ExcelUtils.readExcelSheet(filepath, sheetName, skipFirstRow);
+    try {
+      writeSnapshot(directory, snapshot, dataSet);
+    } catch (IOException e) {
+      Log.warn("Unable to write Excel snapshot " + snapshot + ": " + e);
+      return dataSet;
+    }
+    deleteStaleSnapshots(directory, source, snapshot);
+    return dataSet;
+  }
+
+  /**
+   * Deletes all snapshots in the snapshot directory.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void clearSnapshots() {
+    Path directory = snapshotDirectory;
+    if (!Files.isDirectory(directory))
+      return;
+    try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      for (Path snapshot : snapshots) {
+        Files.deleteIfExists(snapshot);
+      }
+    } catch (IOException e) {
+      Log.error("Unable to clear Excel snapshots in " + directory, e);
+    }
+  }
+
+  /**
+   * Identifies the snapshots of one sheet of one Excel file read with the same
+   * options, whatever its content.
+   */
+  private static String sourceName(String filepath, String sheetName, boolean skipFirstRow) throws IOException {
+    MessageDigest digest = sha256();
+    digest.update(new File(filepath).getCanonicalPath().getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(sheetName.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) (skipFirstRow ? 1 : 0));
+    digest.update((byte) VERSION);
+    return hex(digest.digest(), 16);
+  }
+
+  private static String contentHash(String filepath) throws IOException {
+    MessageDigest digest = sha256();
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream in = Files.newInputStream(new File(filepath).toPath())) {
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return hex(digest.digest(), 64);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+    }
+  }
+
+  private static String hex(byte[] bytes, int length) {
+    StringBuilder hex = new StringBuilder(length);
+    for (int i = 0; hex.length() < length; i++) {
+      hex.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Deletes the snapshots of earlier contents of the same sheet. A snapshot
+   * that cannot be deleted, e.g. because it is being read on Windows, is left
+   * for the next write.
+   */
+  private static void deleteStaleSnapshots(Path directory, String source, Path current) {
+    try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(directory, source + "-*" + EXTENSION)) {
+      for (Path snapshot : snapshots) {
+        if (!snapshot.equals(current))
+          Files.deleteIfExists(snapshot);
+      }
+    } catch (IOException e) {
+      Log.warn("Unable to delete stale Excel snapshots of " + current + ": " + e);
+    }
+  }
+
+  private static List<Map<String, String>> readSnapshot(Path snapshot) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE)
+        throw new IOException("Excel snapshot too large: " + snapshot);
+      buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0)
+          break;
+      }
+      buffer.flip();
+    }
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+        throw new IOException("Not an Excel snapshot of version " + VERSION);
+      String[] strings = new String[count(buffer, 4)];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[count(buffer, 1)];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      int rowCount = count(buffer, 4);
+      List<Map<String, String>> dataSet = new ArrayList<>(rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        int entries = count(buffer, 8);
+        Map<String, String> data = new HashMap<>(Math.max(16, (int) (entries / 0.75f) + 1));
+        for (int j = 0; j < entries; j++) {
+          data.put(strings[buffer.getInt()], strings[buffer.getInt()]);
+        }
+        dataSet.add(data);
+      }
+      return dataSet;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IOException("Truncated Excel snapshot: " + snapshot, e);
+    }
+  }
+
+  /**
+   * Reads a count and checks it against the bytes left, so that a corrupt
+   * snapshot fails instead of allocating huge arrays.
+   */
+  private static int count(ByteBuffer buffer, int minBytesPerItem) throws IOException {
+    int count = buffer.getInt();
+    if (count < 0 || (long) count * minBytesPerItem > buffer.remaining())
+      throw new IOException("Corrupt Excel snapshot, count " + count + " exceeds remaining bytes");
+    return count;
+  }
+
+  /**
+   * Writes the snapshot to a temporary file first and moves it into place, so
+   * concurrent readers never see a partial snapshot.
+   */
+  private static void writeSnapshot(Path directory, Path snapshot, List<Map<String, String>> dataSet)
+      throws IOException {
+    Map<String, Integer> ids = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    for (Map<String, String> data : dataSet) {
+      for (Map.Entry<String, String> entry : data.entrySet()) {
+        if (ids.putIfAbsent(entry.getKey(), strings.size()) == null)
+          strings.add(entry.getKey());
+        if (ids.putIfAbsent(entry.getValue(), strings.size()) == null)
+          strings.add(entry.getValue());
+      }
+    }
+
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, "excel-", ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        for (String string : strings) {
+          byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        }
+        out.writeInt(dataSet.size());
+        for (Map<String, String> data : dataSet) {
+          out.writeInt(data.size());
+          for (Map.Entry<String, String> entry : data.entrySet()) {
+            out.writeInt(ids.get(entry.getKey()));
+            out.writeInt(ids.get(entry.getValue()));
+          }
+        }
+      }
+      try {
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Log.info("Excel snapshot written to: " + snapshot);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+}
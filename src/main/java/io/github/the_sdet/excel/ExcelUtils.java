@@ -1,17 +1,26 @@
 package io.github.the_sdet.excel;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
-import static io.github.the_sdet.common.CommonUtils.EMPTY_STRING;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class handles all Excel related Utilities and Helper methods
@@ -20,6 +29,13 @@ import static io.github.the_sdet.common.CommonUtils.EMPTY_STRING;
  */
 @SuppressWarnings("unused")
 public class ExcelUtils {
+  private static final AtomicInteger SHEET_LOADER_COUNT = new AtomicInteger();
+  private static final ThreadFactory SHEET_LOADER_THREADS = runnable -> {
+    Thread thread = new Thread(runnable, "excel-sheet-loader-" + SHEET_LOADER_COUNT.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  };
+
   /**
    * Retrieves the headers from Excel.
    *
@@ -33,14 +49,7 @@ public class ExcelUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static List<String> getHeaderList(String filepath, String sheetName) throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    for (int i = 0; i < sheet.getRow(0).getLastCellNum(); i++) {
-      dataList.add(getStringValue(sheet, 0, i));
-    }
-    return dataList;
+    return getValuesOfRow(filepath, sheetName, 0, false);
   }
 
   /**
@@ -61,15 +70,7 @@ public class ExcelUtils {
    */
   public static ArrayList<String> getValuesOfColumn(String filepath, String sheetName, int column, boolean skipHeader)
       throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    int start = skipHeader ? 1 : 0;
-    for (int i = start; i <= sheet.getLastRowNum(); i++) {
-      dataList.add(getStringValue(sheet, i, column));
-    }
-    return dataList;
+    return getSheetIndex(filepath, sheetName).getValuesOfColumn(column, skipHeader);
   }
 
   /**
@@ -90,22 +91,9 @@ public class ExcelUtils {
    */
   public static ArrayList<String> getValuesOfColumn(String filepath, String sheetName, String columnHeader,
       boolean skipHeader) throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    int column = 0;
-    for (int i = 0; i < sheet.getRow(0).getLastCellNum(); i++) {
-      if (getStringValue(sheet, 0, i).equalsIgnoreCase(columnHeader.trim())) {
-        column = i;
-        break;
-      }
-    }
-    int start = skipHeader ? 1 : 0;
-    for (int i = start; i <= sheet.getLastRowNum(); i++) {
-      dataList.add(getStringValue(sheet, i, column));
-    }
-    return dataList;
+    ExcelSheetIndex index = getSheetIndex(filepath, sheetName);
+    int column = Math.max(index.getColumnIndex(columnHeader), 0);
+    return index.getValuesOfColumn(column, skipHeader);
   }
 
   /**
@@ -127,15 +115,7 @@ public class ExcelUtils {
    */
   public static ArrayList<String> getValuesOfRow(String filepath, String sheetName, int row, boolean skipFirstColumn)
       throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    int start = skipFirstColumn ? 1 : 0;
-    for (int i = start; i < sheet.getRow(row).getLastCellNum(); i++) {
-      dataList.add(getStringValue(sheet, row, i));
-    }
-    return dataList;
+    return getSheetIndex(filepath, sheetName).getValuesOfRow(row, skipFirstColumn);
   }
 
   /**
@@ -157,22 +137,9 @@ public class ExcelUtils {
    */
   public static ArrayList<String> getValuesOfRow(String filepath, String sheetName, String rowHeader,
       boolean skipFirstColumn) throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    int row = 0;
-    for (int i = 0; i <= sheet.getLastRowNum(); i++) {
-      if (getStringValue(sheet, i, 0).equalsIgnoreCase(rowHeader.trim())) {
-        row = i;
-        break;
-      }
-    }
-    int start = skipFirstColumn ? 1 : 0;
-    for (int i = start; i < sheet.getRow(row).getLastCellNum(); i++) {
-      dataList.add(getStringValue(sheet, row, i));
-    }
-    return dataList;
+    ExcelSheetIndex index = getSheetIndex(filepath, sheetName);
+    int row = Math.max(index.getRowIndex(rowHeader), 0);
+    return index.getValuesOfRow(row, skipFirstColumn);
   }
 
   /**
@@ -190,21 +157,7 @@ public class ExcelUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static List<Map<String, String>> readExcelSheet(String filepath, String sheetName) throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    List<Map<String, String>> dataSet = new ArrayList<>();
-    for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-      Map<String, String> data = new HashMap<>();
-      for (int j = 0; j < sheet.getRow(0).getLastCellNum(); j++) {
-        String header = getStringValue(sheet, 0, j);
-        String value = getStringValue(sheet, i, j);
-        data.put(header, value);
-      }
-      dataSet.add(data);
-    }
-    return dataSet;
+    return readExcelSheet(filepath, sheetName, false);
   }
 
   /**
@@ -225,49 +178,372 @@ public class ExcelUtils {
    */
   public static List<Map<String, String>> readExcelSheet(String filepath, String sheetName, boolean skipFirstRow)
       throws IOException {
-    ArrayList<String> dataList = new ArrayList<>();
-    FileInputStream fis = new FileInputStream(filepath);
-    XSSFWorkbook wb = new XSSFWorkbook(fis);
-    XSSFSheet sheet = wb.getSheet(sheetName);
-    List<Map<String, String>> dataSet = new ArrayList<>();
-    int rowValueStart = skipFirstRow ? 1 : 0;
+    try (Stream<Map<String, String>> rows = streamExcelSheet(filepath, sheetName, skipFirstRow)) {
+      return rows.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
 
-    for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-      Map<String, String> data = new HashMap<>();
-      for (int j = rowValueStart; j < sheet.getRow(0).getLastCellNum(); j++) {
-        String header = getStringValue(sheet, 0, j);
-        String value = getStringValue(sheet, i, j);
-        data.put(header, value);
+  /**
+   * Streams the rows of an Excel sheet without loading the whole workbook into
+   * memory. Each element is a map with header as key and value for that header
+   * and row, same as {@link #readExcelSheet(String, String)}. Rows are decoded
+   * lazily while the stream is consumed, so memory use stays flat for any sheet
+   * size. The stream must be closed, preferably with try-with-resources, if it is
+   * not fully consumed.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @return Stream of maps representing the data rows of the Excel sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<Map<String, String>> streamExcelSheet(String filepath, String sheetName) throws IOException {
+    return streamExcelSheet(filepath, sheetName, false);
+  }
+
+  /**
+   * Streams the rows of an Excel sheet without loading the whole workbook into
+   * memory, optionally skipping the first column value as done by
+   * {@link #readExcelSheet(String, String, boolean)}. Read errors while consuming
+   * the stream are thrown as {@link UncheckedIOException}.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @param skipFirstRow
+   *            true to skip the first row, false otherwise
+   * @return Stream of maps representing the data rows of the Excel sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<Map<String, String>> streamExcelSheet(String filepath, String sheetName, boolean skipFirstRow)
+      throws IOException {
+    return streamRows(ExcelSheetReader.open(filepath, sheetName), skipFirstRow);
+  }
+
+  /**
+   * Reads several sheets of an Excel file in parallel, one sheet per task, on a
+   * thread pool sized to the available processors. The file, its shared strings
+   * and sheet parts are parsed once and shared by all tasks.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetNames
+   *            names of the sheets to read
+   * @return Map of sheet name to the rows of that sheet as returned by
+   *         {@link #readExcelSheet(String, String)}, in the order of sheetNames
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Map<String, List<Map<String, String>>> readExcelSheets(String filepath, Collection<String> sheetNames)
+      throws IOException {
+    return readExcelSheets(filepath, sheetNames, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Reads several sheets of an Excel file in parallel on at most the given
+   * number of threads. The file, its shared strings and sheet parts are parsed
+   * once and shared by all tasks.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetNames
+   *            names of the sheets to read
+   * @param parallelism
+   *            maximum number of sheets read at the same time
+   * @return Map of sheet name to the rows of that sheet as returned by
+   *         {@link #readExcelSheet(String, String)}, in the order of sheetNames
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Map<String, List<Map<String, String>>> readExcelSheets(String filepath, Collection<String> sheetNames,
+      int parallelism) throws IOException {
+    Map<String, List<Map<String, String>>> dataSets = new LinkedHashMap<>();
+    if (sheetNames.isEmpty())
+      return dataSets;
+    try (CachedWorkbook wb = WorkbookCache.acquire(filepath)) {
+      wb.getSharedStrings();
+      ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, sheetNames.size())),
+          SHEET_LOADER_THREADS);
+      try {
+        Map<String, Future<List<Map<String, String>>>> futures = new LinkedHashMap<>();
+        for (String sheetName : sheetNames) {
+          futures.put(sheetName, executor.submit(() -> readExcelSheet(wb, sheetName)));
+        }
+        for (Map.Entry<String, Future<List<Map<String, String>>>> future : futures.entrySet()) {
+          dataSets.put(future.getKey(), future.getValue().get());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while reading Excel file: " + filepath, e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException)
+          throw (IOException) cause;
+        if (cause instanceof UncheckedIOException)
+          throw ((UncheckedIOException) cause).getCause();
+        throw new IOException("Unable to read Excel file: " + filepath, cause);
+      } finally {
+        executor.shutdownNow();
       }
-      dataSet.add(data);
     }
-    return dataSet;
+    return dataSets;
   }
 
   /**
-   * Retrieve the string value from a given cell in the Excel sheet.
+   * Reads all sheets of an Excel file in parallel, see
+   * {@link #readExcelSheets(String, Collection)}.
    *
-   * @param sheet
-   *            Excel sheet from which to retrieve the value
-   * @param row
-   *            Row index of the cell
-   * @param column
-   *            Column index of the cell
-   * @return The string value of the cell
+   * @param filepath
+   *            filename with path
+   * @return Map of sheet name to the rows of that sheet, in workbook order
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Map<String, List<Map<String, String>>> readAllExcelSheets(String filepath) throws IOException {
+    return readExcelSheets(filepath, getSheetNames(filepath));
+  }
+
+  /**
+   * Retrieves the names of all sheets of an Excel file.
+   *
+   * @param filepath
+   *            filename with path
+   * @return List of sheet names in workbook order
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<String> getSheetNames(String filepath) throws IOException {
+    try (CachedWorkbook wb = WorkbookCache.acquire(filepath)) {
+      return wb.getSheetNames();
+    }
+  }
+
+  /**
+   * Writes rows to a new Excel file with a single sheet using the streaming
+   * {@link ExcelWriter}, so memory use does not depend on the number of rows.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @param rows
+   *            rows, each row a list of cell values
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void writeExcelSheet(String filepath, String sheetName, List<List<String>> rows) throws IOException {
+    try (ExcelWriter writer = new ExcelWriter()) {
+      writer.writeSheet(sheetName, rows).save(filepath);
+    }
+  }
+
+  /**
+   * Writes rows to a new Excel file with a single sheet using the streaming
+   * {@link ExcelWriter}. The keys of the first row become the header row.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @param rows
+   *            rows, each row a map with header as key and value for that header
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void writeExcelSheet(String filepath, String sheetName, Stream<Map<String, String>> rows)
+      throws IOException {
+    try (ExcelWriter writer = new ExcelWriter()) {
+      writer.writeSheet(sheetName, rows).save(filepath);
+    }
+  }
+
+  /**
+   * Reads the data rows of an Excel sheet into primitive typed columns, e.g.
+   * double[] or long[] for numeric columns, keyed by the headers of the first
+   * row. Use it for large numeric test data to avoid converting every number to
+   * a String and parsing it back.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @return columnar data of the Excel sheet
+   * @throws IOException
+   *             if an I/O error occurs
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
-  private static String getStringValue(XSSFSheet sheet, int row, int column) {
-    Cell cell = sheet.getRow(row).getCell(column);
-    if (cell == null)
-      return EMPTY_STRING;
-    switch (cell.getCellType()) {
-      case NUMERIC :
-        return String.valueOf(cell.getNumericCellValue());
-      case BLANK :
-      case _NONE :
-        return EMPTY_STRING;
-      default :
-        return cell.getStringCellValue().trim();
+  public static ExcelColumnarSheet readExcelSheetColumns(String filepath, String sheetName) throws IOException {
+    try (ExcelSheetReader reader = ExcelSheetReader.open(filepath, sheetName)) {
+      return ExcelColumnarSheet.build(reader);
+    }
+  }
+
+  /**
+   * Returns the index of an Excel sheet, which gives constant time access to
+   * columns by header and rows by their first cell value. The index is built in
+   * one pass on first use and cached together with the Excel file, so it keeps
+   * all cell values of the sheet in memory for as long as the file stays in the
+   * cache, see {@link #setWorkbookCacheSize(int)}.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @return index of the sheet
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ExcelSheetIndex getSheetIndex(String filepath, String sheetName) throws IOException {
+    try (CachedWorkbook wb = WorkbookCache.acquire(filepath)) {
+      return wb.getSheetIndex(sheetName);
+    }
+  }
+
+  /**
+   * Sets how many Excel files are kept open and parsed between calls. Files are
+   * cached by path and last modified time and the least recently used one is
+   * closed when the limit is exceeded. Default is 8.
+   *
+   * @param maxSize
+   *            maximum number of cached Excel files
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setWorkbookCacheSize(int maxSize) {
+    WorkbookCache.cache().setMaxSize(maxSize);
+  }
+
+  /**
+   * Closes all cached Excel files. Files still being read are closed as soon as
+   * their readers are done.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void clearWorkbookCache() {
+    WorkbookCache.cache().invalidateAll();
+  }
+
+  /**
+   * Returns size, hit and miss statistics of the Excel file cache.
+   *
+   * @return cache statistics in readable form
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String getWorkbookCacheStatistics() {
+    return WorkbookCache.cache().toString();
+  }
+
+  /**
+   * Reads all data rows of a sheet of an already acquired workbook, holding an
+   * own reference on it while reading.
+   */
+  private static List<Map<String, String>> readExcelSheet(CachedWorkbook wb, String sheetName) throws IOException {
+    wb.retain();
+    ExcelSheetReader reader;
+    try {
+      reader = ExcelSheetReader.open(wb, sheetName);
+    } catch (IOException e) {
+      wb.close();
+      throw e;
+    }
+    try (Stream<Map<String, String>> rows = streamRows(reader, false)) {
+      return rows.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Adapts a sheet reader to a stream of row maps that closes the reader when
+   * the stream is closed.
+   */
+  private static Stream<Map<String, String>> streamRows(ExcelSheetReader reader, boolean skipFirstRow)
+      throws IOException {
+    RowMapIterator iterator;
+    try {
+      iterator = new RowMapIterator(reader, skipFirstRow ? 1 : 0);
+    } catch (IOException e) {
+      reader.close();
+      throw e;
+    }
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Iterator adapting an {@link ExcelSheetReader} to maps of header and value.
+   * The first row of the sheet is taken as header row and the reader is closed
+   * as soon as the last row has been read.
+   */
+  private static class RowMapIterator implements Iterator<Map<String, String>> {
+    private final ExcelSheetReader reader;
+    private final int columnStart;
+    private final String[] headers;
+    private boolean hasNext;
+
+    RowMapIterator(ExcelSheetReader reader, int columnStart) throws IOException {
+      this.reader = reader;
+      this.columnStart = columnStart;
+      if (reader.nextRow()) {
+        headers = new String[reader.getCellCount()];
+        for (int j = 0; j < headers.length; j++) {
+          headers[j] = reader.getStringValue(j);
+        }
+      } else {
+        headers = new String[0];
+      }
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return hasNext;
+    }
+
+    @Override
+    public Map<String, String> next() {
+      if (!hasNext)
+        throw new NoSuchElementException();
+      Map<String, String> data = new HashMap<>();
+      for (int j = columnStart; j < headers.length; j++) {
+        data.put(headers[j], reader.getStringValue(j));
+      }
+      try {
+        advance();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return data;
+    }
+
+    private void advance() throws IOException {
+      hasNext = reader.nextRow();
+      if (!hasNext)
+        reader.close();
+    }
+
+    void close() {
+      hasNext = false;
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,290 @@
+package io.github.the_sdet.excel;
+
+import io.github.the_sdet.logger.Log;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streaming writer for .xlsx files built on {@link SXSSFWorkbook}. Only a
+ * window of the most recently written rows is kept in memory, older rows are
+ * flushed to a compressed temporary file, so writing any number of rows uses
+ * constant memory. Several sheets can be written before the workbook is saved.
+ * <p>
+ * Cell styles are pooled per workbook: the header style and one style per data
+ * format, e.g. "0.00" or "yyyy-mm-dd", are created on first use and shared by
+ * every cell using them, as a workbook holds a limited number of styles and
+ * creating one per cell would exhaust them on large sheets.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * try (ExcelWriter writer = new ExcelWriter()) {
+ *   writer.writeSheet("Results", rows).writeSheet("Summary", summary).save(filepath);
+ * }
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ExcelWriter implements Closeable {
+  /**
+   * Default number of rows kept in memory per sheet.
+   */
+  public static final int DEFAULT_ROW_WINDOW_SIZE = 100;
+
+  private final SXSSFWorkbook workbook;
+  private final Map<String, CellStyle> formatStyles = new HashMap<>();
+  private DataFormat dataFormat;
+  private CellStyle headerStyle;
+
+  /**
+   * Creates a writer keeping the default window of rows in memory.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelWriter() {
+    this(DEFAULT_ROW_WINDOW_SIZE);
+  }
+
+  /**
+   * Creates a writer keeping the given number of rows per sheet in memory.
+   *
+   * @param rowWindowSize
+   *            number of rows kept in memory before they are flushed to disk
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelWriter(int rowWindowSize) {
+    workbook = new SXSSFWorkbook(rowWindowSize);
+    workbook.setCompressTempFiles(true);
+  }
+
+  /**
+   * Writes a sheet with the rows as they are, the first row is not treated
+   * differently.
+   *
+   * @param sheetName
+   *            name of the sheet
+   * @param rows
+   *            rows, each row a list of cell values
+   * @return this writer
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelWriter writeSheet(String sheetName, List<List<String>> rows) {
+    SXSSFSheet sheet = workbook.createSheet(sheetName);
+    int rowNum = 0;
+    for (List<String> values : rows) {
+      writeRow(sheet.createRow(rowNum++), values, null);
+    }
+    Log.info("Written " + rowNum + " rows to sheet: " + sheetName);
+    return this;
+  }
+
+  /**
+   * Writes a sheet with a header row taken from the keys of the first row,
+   * followed by one row per element of the stream. Use maps with a predictable
+   * key order, e.g. LinkedHashMap, to control the column order.
+   *
+   * @param sheetName
+   *            name of the sheet
+   * @param rows
+   *            rows, each row a map with header as key and value for that header
+   * @return this writer
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelWriter writeSheet(String sheetName, Stream<Map<String, String>> rows) {
+    return writeSheet(sheetName, null, rows);
+  }
+
+  /**
+   * Writes a sheet with the given header row followed by one row per element
+   * of the stream. Values of keys not in the headers are ignored and missing
+   * keys give blank cells.
+   *
+   * @param sheetName
+   *            name of the sheet
+   * @param headers
+   *            column headers, null to take the keys of the first row
+   * @param rows
+   *            rows, each row a map with header as key and value for that header
+   * @return this writer
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelWriter writeSheet(String sheetName, List<String> headers, Stream<Map<String, String>> rows) {
+    return writeSheet(sheetName, headers, Collections.emptyMap(), rows);
+  }
+
+  /**
+   * Writes a sheet with the given header row followed by one row per element
+   * of the stream, formatting the cells of a column with the data format given
+   * for its header. Numbers are written as numeric cells, Date, Calendar,
+   * LocalDate and LocalDateTime values as date cells, Booleans as boolean cells
+   * and any other value as text. All cells of a format share one pooled style,
+   * see {@link #getCellStyle(String)}.
+   *
+   * @param sheetName
+   *            name of the sheet
+   * @param headers
+   *            column headers, null to take the keys of the first row
+   * @param columnFormats
+   *            Excel data format per header, e.g. "#,##0.00" or "yyyy-mm-dd";
+   *            columns without a format are written unformatted
+   * @param rows
+   *            rows, each row a map with header as key and value for that header
+   * @return this writer
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ExcelWriter writeSheet(String sheetName, List<String> headers, Map<String, String> columnFormats,
+      Stream<? extends Map<String, ?>> rows) {
+    SXSSFSheet sheet = workbook.createSheet(sheetName);
+    Iterator<? extends Map<String, ?>> iterator = rows.iterator();
+    List<String> columns = headers;
+    CellStyle[] styles = null;
+    int rowNum = 0;
+    while (iterator.hasNext()) {
+      Map<String, ?> data = iterator.next();
+      if (columns == null)
+        columns = new ArrayList<>(data.keySet());
+      if (rowNum == 0) {
+        writeRow(sheet.createRow(rowNum++), columns, getHeaderStyle());
+        styles = new CellStyle[columns.size()];
+        for (int j = 0; j < styles.length; j++) {
+          String format = columnFormats.get(columns.get(j));
+          if (format != null)
+            styles[j] = getCellStyle(format);
+        }
+      }
+      SXSSFRow row = sheet.createRow(rowNum++);
+      for (int j = 0; j < columns.size(); j++) {
+        Object value = data.get(columns.get(j));
+        if (value == null)
+          continue;
+        Cell cell = row.createCell(j);
+        setCellValue(cell, value);
+        if (styles[j] != null)
+          cell.setCellStyle(styles[j]);
+      }
+    }
+    if (rowNum == 0 && columns != null)
+      writeRow(sheet.createRow(rowNum++), columns, getHeaderStyle());
+    Log.info("Written " + rowNum + " rows to sheet: " + sheetName);
+    return this;
+  }
+
+  /**
+   * Returns the pooled cell style for an Excel data format, creating it on
+   * first use. Use it to format cells of large sheets without creating a new
+   * style per cell.
+   *
+   * @param format
+   *            Excel data format, e.g. "0.00" or "dd/mm/yyyy hh:mm"
+   * @return cell style shared by all cells with this format
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CellStyle getCellStyle(String format) {
+    return formatStyles.computeIfAbsent(format, f -> {
+      if (dataFormat == null)
+        dataFormat = workbook.createDataFormat();
+      CellStyle style = workbook.createCellStyle();
+      style.setDataFormat(dataFormat.getFormat(f));
+      return style;
+    });
+  }
+
+  /**
+   * Saves the workbook with all written sheets to a file.
+   *
+   * @param filepath
+   *            filename with path
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void save(String filepath) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(new File(filepath).toPath()),
+        64 * 1024)) {
+      workbook.write(out);
+    } catch (IOException e) {
+      throw new IOException("Unable to write Excel file: " + filepath, e);
+    }
+    Log.info("Excel file saved to: " + filepath);
+  }
+
+  /**
+   * Deletes the temporary files of the written rows and closes the workbook.
+   *
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() throws IOException {
+    workbook.dispose();
+    workbook.close();
+  }
+
+  private void writeRow(SXSSFRow row, List<String> values, CellStyle style) {
+    for (int j = 0; j < values.size(); j++) {
+      String value = values.get(j);
+      if (value == null)
+        continue;
+      Cell cell = row.createCell(j);
+      cell.setCellValue(value);
+      if (style != null)
+        cell.setCellStyle(style);
+    }
+  }
+
+  private static void setCellValue(Cell cell, Object value) {
+    if (value instanceof Number)
+      cell.setCellValue(((Number) value).doubleValue());
+    else if (value instanceof Boolean)
+      cell.setCellValue((Boolean) value);
+    else if (value instanceof Date)
+      cell.setCellValue((Date) value);
+    else if (value instanceof Calendar)
+      cell.setCellValue((Calendar) value);
+    else if (value instanceof LocalDateTime)
+      cell.setCellValue((LocalDateTime) value);
+    else if (value instanceof LocalDate)
+      cell.setCellValue((LocalDate) value);
+    else
+      cell.setCellValue(value.toString());
+  }
+
+  /**
+   * Returns the bold header style, created once per workbook as every new style
+   * is stored in the workbook and they are limited in number.
+   */
+  private CellStyle getHeaderStyle() {
+    if (headerStyle == null) {
+      Font font = workbook.createFont();
+      font.setBold(true);
+      headerStyle = workbook.createCellStyle();
+      headerStyle.setFont(font);
+    }
+    return headerStyle;
+  }
+}
@@ -0,0 +1,102 @@
+package io.github.the_sdet.excel;
+
+import io.github.the_sdet.common.BoundedCache;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Process wide cache of opened Excel files keyed by canonical path and last
+ * modified time, so that a file changed on disk is opened again. Entries are
+ * evicted least-recently-used once the cache is full and their file handle is
+ * closed as soon as no reader holds them anymore.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+final class WorkbookCache {
+  /**
+   * Default number of Excel files kept open.
+   */
+  static final int DEFAULT_MAX_SIZE = 8;
+
+  private static final BoundedCache<Key, CachedWorkbook> CACHE = new BoundedCache<>(DEFAULT_MAX_SIZE,
+      (key, workbook) -> workbook.close());
+
+  private WorkbookCache() {
+  }
+
+  /**
+   * Returns the cached workbook of a file, opening it on first use. The caller
+   * owns one reference and must close the returned handle when done.
+   *
+   * @param filepath
+   *            filename with path
+   * @return workbook handle
+   * @throws IOException
+   *             if the file does not exist or cannot be opened
+   */
+  static CachedWorkbook acquire(String filepath) throws IOException {
+    File file = new File(filepath);
+    if (!file.isFile())
+      throw new FileNotFoundException(filepath + " (No such file)");
+    Key key = new Key(file.getCanonicalPath(), file.lastModified());
+    while (true) {
+      CachedWorkbook workbook;
+      boolean[] opened = new boolean[1];
+      try {
+        workbook = CACHE.get(key, k -> {
+          try {
+            opened[0] = true;
+            return CachedWorkbook.open(filepath);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      // only a newly opened version can make another one of the same file stale
+      if (opened[0])
+        CACHE.invalidateIf(k -> k.path.equals(key.path) && k.lastModified != key.lastModified);
+      if (workbook.retain())
+        return workbook;
+    }
+  }
+
+  /**
+   * Returns the underlying cache, e.g. to change its size or read statistics.
+   *
+   * @return the workbook cache
+   */
+  static BoundedCache<?, ?> cache() {
+    return CACHE;
+  }
+
+  private static final class Key {
+    final String path;
+    final long lastModified;
+
+    Key(String path, long lastModified) {
+      this.path = path;
+      this.lastModified = lastModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key))
+        return false;
+      Key other = (Key) o;
+      return lastModified == other.lastModified && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, lastModified);
+    }
+  }
+}
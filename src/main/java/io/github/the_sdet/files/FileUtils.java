@@ -3,8 +3,13 @@ package io.github.the_sdet.files;
 import io.github.the_sdet.logger.Log;
 
 import java.io.*;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ThreadLocalRandom;
 /**
  * This class handles all File Handling related Utilities and Helper methods
  *
@@ -45,6 +50,43 @@ public class FileUtils {
     }
   }
 
+  /**
+   * Creates an empty temporary file in the directory of a target file, to be
+   * written and then moved over the target. Unlike Files.createTempFile, which
+   * restricts the file to its owner on POSIX systems, the temporary file gets
+   * the permissions of the existing target, or the default permissions of a
+   * newly created file (umask) if there is no target yet, so that replacing the
+   * target does not change who can read it.
+   *
+   * @param target
+   *            file the temporary file is going to replace
+   * @return path of the new, empty temporary file
+   * @throws IOException
+   *             if the file cannot be created or its permissions cannot be set
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Path createTempFileFor(Path target) throws IOException {
+    Path absolute = target.toAbsolutePath();
+    while (true) {
+      Path temp = absolute.resolveSibling(
+          absolute.getFileName() + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        Files.createFile(temp);
+      } catch (FileAlreadyExistsException e) {
+        continue;
+      }
+      try {
+        if (Files.exists(absolute)
+            && Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class))
+          Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(absolute));
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+      return temp;
+    }
+  }
+
   /**
    * Copies a file from the source to the destination.
    *
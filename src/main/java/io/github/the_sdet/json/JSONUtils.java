@@ -1,14 +1,28 @@
 package io.github.the_sdet.json;
 
-import com.jayway.jsonpath.JsonPath;
+import io.github.the_sdet.files.FileUtils;
 import io.github.the_sdet.logger.Log;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class handles all JSON related Utilities and Helper methods
@@ -17,6 +31,17 @@ import java.util.*;
  */
 @SuppressWarnings("unused")
 public class JSONUtils {
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  private static final int WRITER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  private static final int MAX_PENDING_WRITES = 1024;
+  private static final AtomicInteger JSON_WRITER_COUNT = new AtomicInteger();
+  private static final ExecutorService JSON_WRITER = new ThreadPoolExecutor(WRITER_THREADS, WRITER_THREADS, 0L,
+      TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING_WRITES), runnable -> {
+        Thread thread = new Thread(runnable, "json-file-writer-" + JSON_WRITER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.CallerRunsPolicy());
+
   /**
    * This method reads a JSON file and returns the content as String
    *
@@ -36,6 +61,24 @@ public class JSONUtils {
     }
   }
 
+  /**
+   * This method streams a JSON file and returns the values of all elements
+   * matching a JSON path, without reading the whole file into memory. Only a
+   * restricted path syntax is supported, see {@link StreamingJsonPath}.
+   *
+   * @param filePath
+   *            JSON file path
+   * @param elementPath
+   *            element path to extract values, e.g. $.items[*].id
+   * @return List of String values of matching elements
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<String> getElementsFromJsonFile(String filePath, String elementPath) throws IOException {
+    return StreamingJsonPath.compile(elementPath).readAll(filePath);
+  }
+
   /**
    * This method writes JSON String to a JSON file
    *
@@ -55,6 +98,73 @@ public class JSONUtils {
     }
   }
 
+  /**
+   * This method writes JSON String to a JSON file atomically. The JSON is
+   * written as UTF-8 through a buffered channel to a temporary file in the same
+   * directory, which then replaces the target file, so readers never see a
+   * partially written file. The file keeps the permissions of the replaced
+   * file, a new file gets the default permissions
+   *
+   * @param jsonString
+   *            JSON String
+   * @param filePath
+   *            JSON file path
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void writeJsonToFileAtomically(String jsonString, String filePath) throws IOException {
+    Path target = new File(filePath).toPath().toAbsolutePath();
+    Path temp = null;
+    try {
+      temp = FileUtils.createTempFileFor(target);
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+          Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1),
+              WRITE_BUFFER_SIZE)) {
+        writer.write(jsonString);
+        writer.flush();
+        channel.force(false);
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      throw new IOException("Unable to write JSON string to file: " + filePath, e);
+    } finally {
+      if (temp != null)
+        Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * This method writes JSON String to a JSON file atomically on a background
+   * thread, see {@link #writeJsonToFileAtomically(String, String)}. When more
+   * writes are pending than the background threads can keep up with, the
+   * calling thread writes the file itself
+   *
+   * @param jsonString
+   *            JSON String
+   * @param filePath
+   *            JSON file path
+   * @return CompletableFuture completed once the file is written, or
+   *         completed exceptionally with the IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static CompletableFuture<Void> writeJsonToFileAsync(String jsonString, String filePath) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    JSON_WRITER.execute(() -> {
+      try {
+        writeJsonToFileAtomically(jsonString, filePath);
+        future.complete(null);
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
   /**
    * This method reads the value of an element from JSON String using json path
    *
@@ -66,7 +176,7 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static String getElementValueFromJsonString(String jsonString, String elementPath) {
-    return JsonPath.read(jsonString, elementPath).toString();
+    return JsonPathCache.get(elementPath).read(jsonString).toString();
   }
 
   /**
@@ -84,9 +194,53 @@ public class JSONUtils {
    */
   public static String updateElementFromJsonString(String jsonString, String elementPath,
       String elementValueToReplaced) {
-    Log.info("Replacing existing value of Element " + getElementValueFromJsonString(jsonString, elementPath)
-        + " with " + elementValueToReplaced);
-    return JsonPath.parse(jsonString).set(elementPath, elementValueToReplaced).jsonString();
+    ParsedJson json = ParsedJson.parse(jsonString);
+    Log.info("Replacing existing value of Element " + json.getElementValue(elementPath) + " with "
+        + elementValueToReplaced);
+    return json.set(elementPath, elementValueToReplaced).jsonString();
+  }
+
+  /**
+   * This method updates the values of multiple elements in JSON String using
+   * json path and returns the JSON String. The JSON is parsed and serialized
+   * only once, whatever the number of updates
+   *
+   * @param jsonString
+   *            JSON String
+   * @param updates
+   *            Map of element paths and new values
+   * @return updated JSON String
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String updateElementsFromJsonString(String jsonString, Map<String, ?> updates) {
+    return updateElementsFromJsonString(jsonString, updates, false);
+  }
+
+  /**
+   * This method updates the values of multiple elements in JSON String using
+   * json path and returns the JSON String. The JSON is parsed and serialized
+   * only once, whatever the number of updates
+   *
+   * @param jsonString
+   *            JSON String
+   * @param updates
+   *            Map of element paths and new values
+   * @param logOldValues
+   *            true to log the existing value of every element before it is
+   *            replaced
+   * @return updated JSON String
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String updateElementsFromJsonString(String jsonString, Map<String, ?> updates,
+      boolean logOldValues) {
+    ParsedJson json = ParsedJson.parse(jsonString);
+    if (logOldValues) {
+      for (Map.Entry<String, ?> update : updates.entrySet()) {
+        Log.info("Replacing existing value of Element " + json.getElementValue(update.getKey().trim()) + " with "
+            + update.getValue());
+      }
+    }
+    return json.set(updates).jsonString();
   }
 
   /**
@@ -101,7 +255,7 @@ public class JSONUtils {
    */
   @SuppressWarnings("unchecked")
   public static List<String> getElementsFromJsonString(String jsonString, String elementPath) {
-    Object value = JsonPath.read(jsonString, elementPath);
+    Object value = JsonPathCache.get(elementPath).read(jsonString);
     if (value instanceof List)
       return (List<String>) value;
     else
@@ -120,11 +274,7 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static List<String> getElementsFromJsonString(String jsonString, String... elementPaths) {
-    List<String> values = new ArrayList<>();
-    for (String elementPath : elementPaths) {
-      values.add(getElementValueFromJsonString(jsonString, elementPath.trim()));
-    }
-    return values;
+    return ParsedJson.parse(jsonString).getElementValues(elementPaths);
   }
 
   /**
@@ -139,10 +289,35 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static Map<String, String> getElementsFromJsonString(String jsonString, Map<String, String> elementPaths) {
-    Map<String, String> values = new HashMap<>();
-    for (Map.Entry<String, String> element : elementPaths.entrySet()) {
-      values.put(element.getKey(), getElementValueFromJsonString(jsonString, element.getValue().trim()));
-    }
-    return values;
+    return ParsedJson.parse(jsonString).getElementValues(elementPaths);
+  }
+
+  /**
+   * This method parses a JSON String once and returns a handle on which many
+   * elements can be read and updated without parsing the JSON again
+   *
+   * @param jsonString
+   *            JSON String
+   * @return parsed JSON document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ParsedJson parseJson(String jsonString) {
+    return ParsedJson.parse(jsonString);
+  }
+
+  /**
+   * This method compares two JSON Strings structurally and returns the
+   * differences. Use {@link JsonDiff} directly to ignore paths, array order or
+   * small numeric differences
+   *
+   * @param expectedJson
+   *            expected JSON String
+   * @param actualJson
+   *            actual JSON String
+   * @return List of differences, empty if the JSON Strings are equal
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<JsonDiff.Difference> compareJson(String expectedJson, String actualJson) {
+    return new JsonDiff().compare(expectedJson, actualJson);
   }
 }
@@ -0,0 +1,622 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Structural comparison of two JSON documents, e.g. an API response against a
+ * golden file. Both documents are parsed once and walked together in a single
+ * pass, and the result is a compact list of differences with the JSON path of
+ * each.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>{@link #ignorePath(String)} - skip elements, supports {@code [*]},
+ * {@code .*} and {@code ..name} to ignore e.g. every timestamp at any
+ * depth</li>
+ * <li>{@link #ignoreArrayOrder(boolean)} - match array elements regardless of
+ * their position, using structural hashes to find candidates</li>
+ * <li>{@link #numericTolerance(double)} - treat numbers as equal if they differ
+ * by at most the tolerance</li>
+ * </ul>
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * List&lt;JsonDiff.Difference&gt; differences = new JsonDiff().ignorePath("$..timestamp").ignoreArrayOrder(true)
+ *     .compare(expectedJson, actualJson);
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonDiff {
+  /**
+   * Kind of difference.
+   */
+  public enum Type {
+    /**
+     * Element present in the expected document only
+     */
+    MISSING,
+    /**
+     * Element present in the actual document only
+     */
+    UNEXPECTED,
+    /**
+     * Element of the same type but with a different value
+     */
+    VALUE_MISMATCH,
+    /**
+     * Element of a different JSON type, e.g. a string instead of a number
+     */
+    TYPE_MISMATCH
+  }
+
+  /**
+   * A single difference between the expected and the actual document.
+   */
+  public static final class Difference {
+    private final Type type;
+    private final String path;
+    private final Object expected;
+    private final Object actual;
+
+    Difference(Type type, String path, Object expected, Object actual) {
+      this.type = type;
+      this.path = path;
+      this.expected = expected;
+      this.actual = actual;
+    }
+
+    /**
+     * @return kind of difference
+     */
+    public Type getType() {
+      return type;
+    }
+
+    /**
+     * @return JSON path of the differing element
+     */
+    public String getPath() {
+      return path;
+    }
+
+    /**
+     * @return expected value, null if the element is UNEXPECTED
+     */
+    public Object getExpected() {
+      return expected;
+    }
+
+    /**
+     * @return actual value, null if the element is MISSING
+     */
+    public Object getActual() {
+      return actual;
+    }
+
+    @Override
+    public String toString() {
+      switch (type) {
+        case MISSING :
+          return type + " " + path + ": expected " + expected;
+        case UNEXPECTED :
+          return type + " " + path + ": actual " + actual;
+        default :
+          return type + " " + path + ": expected " + expected + " but was " + actual;
+      }
+    }
+  }
+
+  /**
+   * Wildcard segments of ignored paths. Path segments are typed: member names
+   * are Strings and array indexes are Integers, so a member named like an index
+   * or a wildcard is never mistaken for one.
+   */
+  private enum Wildcard {
+    ANY, ANY_DEPTH
+  }
+
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$-]*");
+
+  private final List<Object[]> ignoredPaths = new ArrayList<>();
+  private boolean ignoreArrayOrder;
+  private double numericTolerance;
+
+  /**
+   * Ignores the elements matching a path in both documents. When array order is
+   * ignored, an array index in the path, like $.items[0].id, refers to the
+   * expected element of a matched pair; candidate pairs are looked up ignoring
+   * that member at every index.
+   *
+   * @param path
+   *            JSON path like $.a.b, $.items[*].id or $..timestamp
+   * @return this diff
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDiff ignorePath(String path) {
+    ignoredPaths.add(parsePattern(path.trim()));
+    return this;
+  }
+
+  /**
+   * Sets whether arrays are compared regardless of the order of their elements.
+   *
+   * @param ignoreArrayOrder
+   *            true to ignore the order of array elements
+   * @return this diff
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDiff ignoreArrayOrder(boolean ignoreArrayOrder) {
+    this.ignoreArrayOrder = ignoreArrayOrder;
+    return this;
+  }
+
+  /**
+   * Sets the maximum absolute difference for numbers to be considered equal.
+   *
+   * @param tolerance
+   *            numeric tolerance, 0 for exact comparison
+   * @return this diff
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDiff numericTolerance(double tolerance) {
+    this.numericTolerance = Math.abs(tolerance);
+    return this;
+  }
+
+  /**
+   * Compares two JSON Strings.
+   *
+   * @param expectedJson
+   *            expected JSON String
+   * @param actualJson
+   *            actual JSON String
+   * @return List of differences, empty if the documents are equal
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<Difference> compare(String expectedJson, String actualJson) {
+    JsonProvider provider = Configuration.defaultConfiguration().jsonProvider();
+    return compareParsed(provider.parse(expectedJson), provider.parse(actualJson));
+  }
+
+  /**
+   * Compares two already parsed JSON documents, made of Map, List and
+   * primitive values such as {@link ParsedJson#read(String)} returns.
+   *
+   * @param expected
+   *            expected document
+   * @param actual
+   *            actual document
+   * @return List of differences, empty if the documents are equal
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<Difference> compareParsed(Object expected, Object actual) {
+    List<Difference> differences = new ArrayList<>();
+    diff(expected, actual, new ArrayList<>(), differences);
+    return differences;
+  }
+
+  private void diff(Object expected, Object actual, List<Object> path, List<Difference> differences) {
+    if (isIgnored(path))
+      return;
+    if (expected instanceof Map && actual instanceof Map) {
+      diffObjects((Map<?, ?>) expected, (Map<?, ?>) actual, path, differences);
+    } else if (expected instanceof List && actual instanceof List) {
+      if (ignoreArrayOrder)
+        diffArraysIgnoringOrder((List<?>) expected, (List<?>) actual, path, differences);
+      else
+        diffArrays((List<?>) expected, (List<?>) actual, path, differences);
+    } else if (kind(expected) != kind(actual)) {
+      differences.add(new Difference(Type.TYPE_MISMATCH, toPath(path), expected, actual));
+    } else if (!valuesEqual(expected, actual)) {
+      differences.add(new Difference(Type.VALUE_MISMATCH, toPath(path), expected, actual));
+    }
+  }
+
+  private void diffObjects(Map<?, ?> expected, Map<?, ?> actual, List<Object> path, List<Difference> differences) {
+    for (Map.Entry<?, ?> entry : expected.entrySet()) {
+      String key = String.valueOf(entry.getKey());
+      path.add(key);
+      if (actual.containsKey(entry.getKey()))
+        diff(entry.getValue(), actual.get(entry.getKey()), path, differences);
+      else if (!isIgnored(path))
+        differences.add(new Difference(Type.MISSING, toPath(path), entry.getValue(), null));
+      path.remove(path.size() - 1);
+    }
+    for (Map.Entry<?, ?> entry : actual.entrySet()) {
+      if (expected.containsKey(entry.getKey()))
+        continue;
+      path.add(String.valueOf(entry.getKey()));
+      if (!isIgnored(path))
+        differences.add(new Difference(Type.UNEXPECTED, toPath(path), null, entry.getValue()));
+      path.remove(path.size() - 1);
+    }
+  }
+
+  private void diffArrays(List<?> expected, List<?> actual, List<Object> path, List<Difference> differences) {
+    int common = Math.min(expected.size(), actual.size());
+    for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+      path.add(i);
+      if (i < common)
+        diff(expected.get(i), actual.get(i), path, differences);
+      else if (!isIgnored(path))
+        differences.add(i < expected.size()
+            ? new Difference(Type.MISSING, toPath(path), expected.get(i), null)
+            : new Difference(Type.UNEXPECTED, toPath(path), null, actual.get(i)));
+      path.remove(path.size() - 1);
+    }
+  }
+
+  /**
+   * Matches every expected element with an equal actual element. Candidates are
+   * looked up by structural hash, so the comparison stays linear for arrays
+   * without duplicates; elements left without a partner are reported as
+   * MISSING and UNEXPECTED.
+   * <p>
+   * With a numeric tolerance, numbers hash by their tolerance-wide bucket. Two
+   * numbers within tolerance are in the same or a neighbouring bucket, so
+   * number elements also try the neighbouring buckets, and objects or arrays
+   * left over are looked up by the sum of their numbers, see
+   * {@link #matchByShape}.
+   */
+  private void diffArraysIgnoringOrder(List<?> expected, List<?> actual, List<Object> path,
+      List<Difference> differences) {
+    Map<Integer, Deque<Integer>> candidates = new HashMap<>();
+    for (int j = 0; j < actual.size(); j++) {
+      path.add(j);
+      candidates.computeIfAbsent(hash(actual.get(j), path, true), h -> new ArrayDeque<>()).add(j);
+      path.remove(path.size() - 1);
+    }
+    boolean[] matched = new boolean[actual.size()];
+    List<Integer> unmatched = new ArrayList<>();
+    List<Difference> scratch = new ArrayList<>();
+    for (int i = 0; i < expected.size(); i++) {
+      Object element = expected.get(i);
+      path.add(i);
+      Integer partner = findPartner(element, actual, candidates.get(hash(element, path, true)), path, scratch);
+      if (partner == null && numericTolerance > 0 && element instanceof Number) {
+        long bucket = bucket((Number) element);
+        partner = findPartner(element, actual, candidates.get(Long.hashCode(bucket - 1)), path, scratch);
+        if (partner == null)
+          partner = findPartner(element, actual, candidates.get(Long.hashCode(bucket + 1)), path, scratch);
+      }
+      if (partner != null)
+        matched[partner] = true;
+      else
+        unmatched.add(i);
+      path.remove(path.size() - 1);
+    }
+    if (numericTolerance > 0 && !unmatched.isEmpty())
+      matchByShape(expected, actual, path, unmatched, matched, scratch);
+    for (int i : unmatched) {
+      path.add(i);
+      if (!isIgnored(path))
+        differences.add(new Difference(Type.MISSING, toPath(path), expected.get(i), null));
+      path.remove(path.size() - 1);
+    }
+    for (int j = 0; j < actual.size(); j++) {
+      if (matched[j])
+        continue;
+      path.add(j);
+      if (!isIgnored(path))
+        differences.add(new Difference(Type.UNEXPECTED, toPath(path), null, actual.get(j)));
+      path.remove(path.size() - 1);
+    }
+  }
+
+  /**
+   * Second pass with a numeric tolerance for objects and arrays whose numbers
+   * lie across a bucket border. The unmatched actual elements are grouped by
+   * their structure apart from their numbers and sorted by the sum of their
+   * numbers; an unmatched expected element is only compared with the elements
+   * of its group whose sum is within tolerance times its number count.
+   */
+  private void matchByShape(List<?> expected, List<?> actual, List<Object> path, List<Integer> unmatched,
+      boolean[] matched, List<Difference> scratch) {
+    double[] sums = new double[actual.size()];
+    Map<Integer, List<Integer>> groups = new HashMap<>();
+    for (int j = 0; j < actual.size(); j++) {
+      if (matched[j] || !(actual.get(j) instanceof Map || actual.get(j) instanceof List))
+        continue;
+      path.add(j);
+      sums[j] = numberSum(actual.get(j), path, new int[1]);
+      groups.computeIfAbsent(hash(actual.get(j), path, false), h -> new ArrayList<>()).add(j);
+      path.remove(path.size() - 1);
+    }
+    if (groups.isEmpty())
+      return;
+    for (List<Integer> group : groups.values())
+      group.sort((a, b) -> Double.compare(sums[a], sums[b]));
+    for (Iterator<Integer> it = unmatched.iterator(); it.hasNext();) {
+      int i = it.next();
+      Object element = expected.get(i);
+      if (!(element instanceof Map || element instanceof List))
+        continue;
+      path.add(i);
+      List<Integer> group = groups.get(hash(element, path, false));
+      if (group != null) {
+        int[] count = new int[1];
+        double sum = numberSum(element, path, count);
+        double window = count[0] * numericTolerance + 1e-9 * Math.max(1, Math.abs(sum));
+        for (int k = lowerBound(group, sums, sum - window); k < group.size(); k++) {
+          int j = group.get(k);
+          if (sums[j] > sum + window)
+            break;
+          if (matched[j])
+            continue;
+          scratch.clear();
+          diff(element, actual.get(j), path, scratch);
+          if (scratch.isEmpty()) {
+            matched[j] = true;
+            it.remove();
+            break;
+          }
+        }
+      }
+      path.remove(path.size() - 1);
+    }
+  }
+
+  /**
+   * Returns the sum of the numbers in a value that are not ignored, counting
+   * them in count[0].
+   */
+  private double numberSum(Object value, List<Object> path, int[] count) {
+    if (isIgnored(path, true))
+      return 0;
+    double sum = 0;
+    if (value instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        path.add(String.valueOf(entry.getKey()));
+        sum += numberSum(entry.getValue(), path, count);
+        path.remove(path.size() - 1);
+      }
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      for (int i = 0; i < list.size(); i++) {
+        path.add(i);
+        sum += numberSum(list.get(i), path, count);
+        path.remove(path.size() - 1);
+      }
+    } else if (value instanceof Number) {
+      double d = ((Number) value).doubleValue();
+      if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+        count[0]++;
+        sum = d;
+      }
+    }
+    return sum;
+  }
+
+  private static int lowerBound(List<Integer> group, double[] sums, double min) {
+    int low = 0;
+    int high = group.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sums[group.get(mid)] < min)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * Returns and removes the first candidate without differences to the element,
+   * null if there is none.
+   */
+  private Integer findPartner(Object element, List<?> actual, Deque<Integer> candidates, List<Object> path,
+      List<Difference> scratch) {
+    if (candidates == null)
+      return null;
+    for (Iterator<Integer> it = candidates.iterator(); it.hasNext();) {
+      Integer j = it.next();
+      scratch.clear();
+      diff(element, actual.get(j), path, scratch);
+      if (scratch.isEmpty()) {
+        it.remove();
+        return j;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Structural hash that is equal for all values this diff considers equal:
+   * ignored members are skipped, numbers are normalized (or bucketed by the
+   * tolerance, or not hashed at all without numbers) and unordered arrays hash
+   * their elements order independently. Ignored paths with an array index are
+   * applied to every index, as an element is hashed before its partner, and
+   * so its index in the other document, is known.
+   */
+  private int hash(Object value, List<Object> path, boolean numbers) {
+    if (isIgnored(path, true))
+      return 0;
+    if (value instanceof Map) {
+      int h = 1;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        String key = String.valueOf(entry.getKey());
+        path.add(key);
+        h += key.hashCode() ^ hash(entry.getValue(), path, numbers);
+        path.remove(path.size() - 1);
+      }
+      return h;
+    }
+    if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      int h = 2;
+      for (int i = 0; i < list.size(); i++) {
+        path.add(i);
+        int element = hash(list.get(i), path, numbers);
+        h = ignoreArrayOrder ? h + element : 31 * h + element;
+        path.remove(path.size() - 1);
+      }
+      return h;
+    }
+    if (value instanceof Number) {
+      if (!numbers)
+        return 3;
+      if (numericTolerance > 0)
+        return Long.hashCode(bucket((Number) value));
+      return toBigDecimal((Number) value).stripTrailingZeros().hashCode();
+    }
+    return Objects.hashCode(value);
+  }
+
+  /**
+   * Returns the tolerance-wide bucket of a number.
+   */
+  private long bucket(Number number) {
+    double d = number.doubleValue();
+    return Double.isNaN(d) ? 0 : (long) Math.floor(d / numericTolerance);
+  }
+
+  private boolean valuesEqual(Object expected, Object actual) {
+    if (expected instanceof Number && actual instanceof Number) {
+      if (numericTolerance > 0)
+        return Math.abs(((Number) expected).doubleValue() - ((Number) actual).doubleValue()) <= numericTolerance;
+      return toBigDecimal((Number) expected).compareTo(toBigDecimal((Number) actual)) == 0;
+    }
+    return Objects.equals(expected, actual);
+  }
+
+  private static BigDecimal toBigDecimal(Number number) {
+    if (number instanceof BigDecimal)
+      return (BigDecimal) number;
+    if (number instanceof Double || number instanceof Float) {
+      double d = number.doubleValue();
+      if (Double.isNaN(d) || Double.isInfinite(d))
+        return BigDecimal.ZERO;
+      return BigDecimal.valueOf(d);
+    }
+    return new BigDecimal(number.toString());
+  }
+
+  private static int kind(Object value) {
+    if (value == null)
+      return 0;
+    if (value instanceof Map)
+      return 1;
+    if (value instanceof List)
+      return 2;
+    if (value instanceof Number)
+      return 3;
+    if (value instanceof Boolean)
+      return 4;
+    return 5;
+  }
+
+  private boolean isIgnored(List<Object> path) {
+    return isIgnored(path, false);
+  }
+
+  private boolean isIgnored(List<Object> path, boolean anyIndex) {
+    for (Object[] pattern : ignoredPaths) {
+      if (matches(pattern, 0, path, 0, anyIndex))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Matches path segments against a pattern. A pattern matches a path if it
+   * matches a prefix of it, so ignoring an element ignores its children too.
+   * With anyIndex, an array index in the pattern matches every index.
+   */
+  private static boolean matches(Object[] pattern, int p, List<Object> path, int s, boolean anyIndex) {
+    if (p == pattern.length)
+      return true;
+    if (s == path.size())
+      return false;
+    Object segment = pattern[p];
+    if (segment == Wildcard.ANY_DEPTH) {
+      for (int i = s; i < path.size(); i++) {
+        if (matches(pattern, p + 1, path, i, anyIndex))
+          return true;
+      }
+      return false;
+    }
+    Object element = path.get(s);
+    if (segment == Wildcard.ANY || segment.equals(element)
+        || anyIndex && segment instanceof Integer && element instanceof Integer)
+      return matches(pattern, p + 1, path, s + 1, anyIndex);
+    return false;
+  }
+
+  /**
+   * Splits a path like $.a[*].b or $..id into segments: member names as
+   * Strings, array indexes as Integers, {@link Wildcard#ANY} for wildcards and
+   * {@link Wildcard#ANY_DEPTH} for any number of segments.
+   */
+  private static Object[] parsePattern(String path) {
+    if (!path.startsWith("$"))
+      throw new IllegalArgumentException("Ignored path must start with $: " + path);
+    List<Object> segments = new ArrayList<>();
+    int pos = 1;
+    while (pos < path.length()) {
+      char c = path.charAt(pos);
+      if (path.startsWith("..", pos)) {
+        segments.add(Wildcard.ANY_DEPTH);
+        pos += 2;
+        pos = readName(path, pos, segments);
+      } else if (c == '.') {
+        pos = readName(path, pos + 1, segments);
+      } else if (c == '[') {
+        char quote = pos + 1 < path.length() ? path.charAt(pos + 1) : 0;
+        boolean quoted = quote == '\'' || quote == '"';
+        int close = quoted ? path.indexOf(quote, pos + 2) : pos;
+        int end = close < 0 ? -1 : path.indexOf(']', close);
+        if (end < 0)
+          throw new IllegalArgumentException("Unterminated '[' in ignored path: " + path);
+        String selector = path.substring(pos + 1, end).trim();
+        if (quoted)
+          segments.add(path.substring(pos + 2, close));
+        else if (selector.equals("*"))
+          segments.add(Wildcard.ANY);
+        else
+          segments.add(Integer.parseInt(selector));
+        pos = end + 1;
+      } else {
+        throw new IllegalArgumentException("Unexpected '" + c + "' in ignored path: " + path);
+      }
+    }
+    return segments.toArray();
+  }
+
+  private static int readName(String path, int pos, List<Object> segments) {
+    int end = pos;
+    while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[')
+      end++;
+    String name = path.substring(pos, end);
+    if (!name.isEmpty())
+      segments.add(name.equals("*") ? Wildcard.ANY : name);
+    return end;
+  }
+
+  private static String toPath(List<Object> path) {
+    StringBuilder builder = new StringBuilder("$");
+    for (Object segment : path) {
+      if (segment instanceof Integer)
+        builder.append('[').append(segment).append(']');
+      else if (IDENTIFIER.matcher((String) segment).matches())
+        builder.append('.').append(segment);
+      else
+        builder.append("['").append(((String) segment).replace("\\", "\\\\").replace("'", "\\'")).append("']");
+    }
+    return builder.toString();
+  }
+}
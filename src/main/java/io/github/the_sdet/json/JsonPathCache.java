@@ -0,0 +1,154 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import com.jayway.jsonpath.spi.cache.Cache;
+import com.jayway.jsonpath.spi.cache.CacheProvider;
+import io.github.the_sdet.common.BoundedCache;
+import io.github.the_sdet.logger.Log;
+
+/**
+ * Bounded, thread safe cache of compiled {@link JsonPath} expressions shared by
+ * all JSONUtils methods, so that a path evaluated again and again is compiled
+ * only once. Hit and miss counts are kept to verify the cache is effective.
+ * <p>
+ * JsonPath itself caches the paths of reads by path string, e.g.
+ * {@code JsonPath.read(json, path)}, in the cache of its {@link CacheProvider},
+ * but compiles the path of every set, delete etc. again. Instead of adding a
+ * second cache, this cache registers itself as the JsonPath cache when it is
+ * first used, so the toolkit and direct JsonPath reads share one cache and its
+ * statistics. If the JsonPath cache was already in use by then, it cannot be
+ * replaced any more and this cache serves the toolkit only, see
+ * {@link #isSharedWithJsonPath()}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonPathCache {
+  /**
+   * Default number of compiled paths kept in the cache.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1024;
+
+  private static final BoundedCache<String, JsonPath> CACHE = new BoundedCache<>(DEFAULT_MAX_SIZE);
+  private static final boolean SHARED = register();
+
+  /**
+   * Returns the compiled form of a JSON path, compiling it on first use.
+   *
+   * @param elementPath
+   *            JSON path
+   * @return compiled JSON path
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonPath get(String elementPath) {
+    JsonPath path = CACHE.getIfPresent(elementPath);
+    if (path == null) {
+      path = JsonPath.compile(elementPath);
+      CACHE.put(elementPath, path);
+    }
+    return path;
+  }
+
+  /**
+   * Returns whether this cache is the cache of the JsonPath library, i.e. also
+   * serves reads made with JsonPath directly.
+   *
+   * @return true if the cache is shared with JsonPath
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static boolean isSharedWithJsonPath() {
+    return SHARED;
+  }
+
+  /**
+   * Sets the maximum number of compiled paths kept in the cache.
+   *
+   * @param maxSize
+   *            maximum number of compiled paths
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setMaxSize(int maxSize) {
+    CACHE.setMaxSize(maxSize);
+  }
+
+  /**
+   * Returns the number of compiled paths currently cached.
+   *
+   * @return size of the cache
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static int size() {
+    return CACHE.size();
+  }
+
+  /**
+   * Returns the number of lookups served from the cache.
+   *
+   * @return hit count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getHitCount() {
+    return CACHE.getHitCount();
+  }
+
+  /**
+   * Returns the number of lookups that had to compile the path.
+   *
+   * @return miss count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getMissCount() {
+    return CACHE.getMissCount();
+  }
+
+  /**
+   * Returns the ratio of hits to all lookups.
+   *
+   * @return hit rate between 0.0 and 1.0
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static double getHitRate() {
+    return CACHE.getHitRate();
+  }
+
+  /**
+   * Removes all compiled paths and resets the statistics.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void clear() {
+    CACHE.invalidateAll();
+    CACHE.resetStatistics();
+  }
+
+  /**
+   * Returns size, hit and miss statistics of the cache in readable form.
+   *
+   * @return cache statistics
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String getStatistics() {
+    return CACHE.toString();
+  }
+
+  private static boolean register() {
+    try {
+      CacheProvider.setCache(new Cache() {
+        @Override
+        public JsonPath get(String key) {
+          return CACHE.getIfPresent(key);
+        }
+
+        @Override
+        public void put(String key, JsonPath value) {
+          CACHE.put(key, value);
+        }
+      });
+      return true;
+    } catch (JsonPathException e) {
+      Log.warn("JsonPath cache already in use, JsonPathCache serves JSONUtils only: " + e.getMessage());
+      return false;
+    }
+  }
+}
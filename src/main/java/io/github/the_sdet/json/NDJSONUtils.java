@@ -0,0 +1,250 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class handles newline delimited JSON (NDJSON / JSON Lines) files, i.e.
+ * one JSON document per line as produced by event streams and captured API
+ * logs.
+ * <p>
+ * Files are memory-mapped and split into records by scanning for line breaks,
+ * records are only views on the mapped file until they are parsed. The record
+ * streams split by byte range, so parallel streams spread the records over all
+ * cores without reading the file up front.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class NDJSONUtils {
+  private static final int MAX_REGION_SIZE = 1 << 30;
+  private static final int MIN_SPLIT_SIZE = 64 * 1024;
+
+  /**
+   * This method streams the records of an NDJSON file. Blank lines are skipped.
+   * The stream is sequential; call parallel() on it to process the records on
+   * several threads.
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @return Stream of the JSON records as String
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<String> streamRecords(String filePath) throws IOException {
+    return streamRecordBuffers(filePath).map(record -> StandardCharsets.UTF_8.decode(record).toString());
+  }
+
+  /**
+   * This method counts the records of an NDJSON file without parsing them.
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @return number of records
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long countRecords(String filePath) throws IOException {
+    return streamRecordBuffers(filePath).parallel().count();
+  }
+
+  /**
+   * This method evaluates a JSON path on every record of an NDJSON file in
+   * parallel and streams the values found. Records without the element are
+   * skipped and paths returning a list contribute every list item.
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @param elementPath
+   *            element path to extract value
+   * @return parallel Stream of String values of elements
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<String> extractValues(String filePath, String elementPath) throws IOException {
+    JsonPath path = JsonPathCache.get(elementPath);
+    return streamRecords(filePath).parallel().flatMap(record -> extract(record, path).stream());
+  }
+
+  /**
+   * This method evaluates a JSON path on every record of an NDJSON file in
+   * parallel and counts how often each value occurs.
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @param elementPath
+   *            element path to extract value
+   * @return Map of value and its number of occurrences
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Map<String, Long> countValues(String filePath, String elementPath) throws IOException {
+    try (Stream<String> values = extractValues(filePath, elementPath)) {
+      return values.collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+    }
+  }
+
+  /**
+   * This method evaluates a JSON path on every record of an NDJSON file in
+   * parallel and returns the distinct values.
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @param elementPath
+   *            element path to extract value
+   * @return Set of distinct String values of elements
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Set<String> distinctValues(String filePath, String elementPath) throws IOException {
+    try (Stream<String> values = extractValues(filePath, elementPath)) {
+      return values.collect(Collectors.toSet());
+    }
+  }
+
+  private static Collection<String> extract(String record, JsonPath path) {
+    Object value;
+    try {
+      value = path.read(record);
+    } catch (PathNotFoundException e) {
+      return Collections.emptyList();
+    }
+    if (value instanceof List) {
+      List<String> values = new ArrayList<>();
+      for (Object item : (List<?>) value) {
+        values.add(String.valueOf(item));
+      }
+      return values;
+    }
+    return Collections.singletonList(String.valueOf(value));
+  }
+
+  /**
+   * Maps the file in regions of at most 1 GiB, each ending on a line break, and
+   * streams the records of all regions as views on the mapped buffers.
+   */
+  private static Stream<ByteBuffer> streamRecordBuffers(String filePath) throws IOException {
+    List<ByteBuffer> regions = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(new File(filePath).toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = 0;
+      while (start < size) {
+        int length = (int) Math.min(MAX_REGION_SIZE, size - start);
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        int end = length;
+        if (start + length < size) {
+          end = lastLineBreak(region, length) + 1;
+          if (end == 0)
+            throw new IOException("NDJSON record larger than " + MAX_REGION_SIZE + " bytes in file: " + filePath);
+        }
+        regions.add(region.duplicate().limit(end).slice());
+        start += end;
+      }
+    } catch (IOException e) {
+      throw new IOException("Unable to read NDJSON file: " + filePath, e);
+    }
+    Stream<ByteBuffer> records = Stream.empty();
+    for (ByteBuffer region : regions) {
+      records = Stream.concat(records, StreamSupport.stream(new RecordSpliterator(region, 0, region.limit()), false));
+    }
+    return records;
+  }
+
+  private static int lastLineBreak(ByteBuffer buffer, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (buffer.get(i) == '\n')
+        return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Splits a byte range of a mapped buffer into line records. Splitting halves
+   * the range at the next line break after its middle.
+   */
+  private static final class RecordSpliterator implements Spliterator<ByteBuffer> {
+    private final ByteBuffer buffer;
+    private int position;
+    private final int end;
+
+    RecordSpliterator(ByteBuffer buffer, int position, int end) {
+      this.buffer = buffer;
+      this.position = position;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ByteBuffer> action) {
+      while (position < end) {
+        int lineEnd = position;
+        while (lineEnd < end && buffer.get(lineEnd) != '\n')
+          lineEnd++;
+        int recordStart = position;
+        int recordEnd = lineEnd;
+        position = lineEnd + 1;
+        while (recordStart < recordEnd && isWhitespace(buffer.get(recordStart)))
+          recordStart++;
+        while (recordEnd > recordStart && isWhitespace(buffer.get(recordEnd - 1)))
+          recordEnd--;
+        if (recordStart < recordEnd) {
+          action.accept(buffer.duplicate().limit(recordEnd).position(recordStart).slice());
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<ByteBuffer> trySplit() {
+      if (end - position < MIN_SPLIT_SIZE)
+        return null;
+      int middle = position + (end - position) / 2;
+      while (middle < end && buffer.get(middle) != '\n')
+        middle++;
+      if (middle >= end)
+        return null;
+      RecordSpliterator prefix = new RecordSpliterator(buffer, position, middle + 1);
+      position = middle + 1;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+    }
+
+    private static boolean isWhitespace(byte b) {
+      return b == ' ' || b == '\t' || b == '\r';
+    }
+  }
+}
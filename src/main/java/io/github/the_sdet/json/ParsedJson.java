@@ -0,0 +1,177 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON document parsed once, on which any number of reads and updates run
+ * against the same parsed tree. Use it instead of the String based JSONUtils
+ * methods when several elements are read from or written to the same document,
+ * e.g. extracting many fields from a large API response costs a single parse.
+ * <p>
+ * Paths are compiled through the shared {@link JsonPathCache}. Instances are
+ * not thread safe once they are modified.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ParsedJson {
+  private final DocumentContext document;
+
+  private ParsedJson(DocumentContext document) {
+    this.document = document;
+  }
+
+  /**
+   * Parses a JSON String.
+   *
+   * @param jsonString
+   *            JSON String
+   * @return parsed JSON document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ParsedJson parse(String jsonString) {
+    return new ParsedJson(JsonPath.parse(jsonString));
+  }
+
+  /**
+   * Reads an element using json path and returns it as parsed, e.g. a Map for
+   * objects and a List for arrays.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @param <T>
+   *            expected type of the element
+   * @return value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public <T> T read(String elementPath) {
+    return document.read(JsonPathCache.get(elementPath));
+  }
+
+  /**
+   * Reads the value of an element using json path.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return String value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getElementValue(String elementPath) {
+    return read(elementPath).toString();
+  }
+
+  /**
+   * Reads the values of an element using json path.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return List of String values of elements from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> getElements(String elementPath) {
+    Object value = read(elementPath);
+    if (value instanceof List)
+      return (List<String>) value;
+    else
+      return Collections.singletonList(value.toString());
+  }
+
+  /**
+   * Reads the values of multiple elements using json path.
+   *
+   * @param elementPaths
+   *            element paths
+   * @return List of String values of elements from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getElementValues(String... elementPaths) {
+    List<String> values = new ArrayList<>(elementPaths.length);
+    for (String elementPath : elementPaths) {
+      values.add(getElementValue(elementPath.trim()));
+    }
+    return values;
+  }
+
+  /**
+   * Reads the values of multiple elements using json path.
+   *
+   * @param elementPaths
+   *            Map of keys and element paths
+   * @return Map of keys and values from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Map<String, String> getElementValues(Map<String, String> elementPaths) {
+    Map<String, String> values = new HashMap<>();
+    for (Map.Entry<String, String> element : elementPaths.entrySet()) {
+      values.put(element.getKey(), getElementValue(element.getValue().trim()));
+    }
+    return values;
+  }
+
+  /**
+   * Updates the value of an element using json path.
+   *
+   * @param elementPath
+   *            element path which value is to be replaced
+   * @param value
+   *            new value to replace
+   * @return this document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ParsedJson set(String elementPath, Object value) {
+    document.set(JsonPathCache.get(elementPath), value);
+    return this;
+  }
+
+  /**
+   * Updates the values of multiple elements using json path. Updates are
+   * applied in the iteration order of the Map.
+   *
+   * @param updates
+   *            Map of element paths and new values
+   * @return this document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ParsedJson set(Map<String, ?> updates) {
+    for (Map.Entry<String, ?> update : updates.entrySet()) {
+      set(update.getKey().trim(), update.getValue());
+    }
+    return this;
+  }
+
+  /**
+   * Deletes an element using json path.
+   *
+   * @param elementPath
+   *            element path to delete
+   * @return this document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ParsedJson delete(String elementPath) {
+    document.delete(JsonPathCache.get(elementPath));
+    return this;
+  }
+
+  /**
+   * Serializes the document, including all updates, to a JSON String.
+   *
+   * @return JSON String
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String jsonString() {
+    return document.jsonString();
+  }
+
+  @Override
+  public String toString() {
+    return jsonString();
+  }
+}
@@ -0,0 +1,493 @@
+package io.github.the_sdet.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates a restricted JSON path over a JSON document in a single forward
+ * pass of a streaming tokenizer, without building the document tree. Memory
+ * use therefore depends only on the size of a single match (or of a single
+ * array element for filters), not on the size of the document.
+ * <p>
+ * Supported path syntax:
+ * <ul>
+ * <li>{@code $} as root, followed by any number of steps</li>
+ * <li>{@code .name}, {@code ['name']} - object member</li>
+ * <li>{@code [2]} - array element by index</li>
+ * <li>{@code [*]}, {@code .*} - all array elements or object members</li>
+ * <li>{@code [?(@.status == 'OK')]} - array elements matching a filter, with
+ * {@code ==, !=, <, <=, >, >=} against a string, number, boolean or null
+ * literal, or {@code [?(@.status)]} for elements having the member</li>
+ * </ul>
+ * Deep scan ({@code ..}), slices, unions and functions are not supported.
+ * Matched values are returned as they appear in the document: strings without
+ * quotes, numbers and booleans as written, objects and arrays as compact JSON.
+ * <p>
+ * Instances are immutable and can be reused from several threads.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class StreamingJsonPath {
+  private final String path;
+  private final Step[] steps;
+
+  private StreamingJsonPath(String path, Step[] steps) {
+    this.path = path;
+    this.steps = steps;
+  }
+
+  /**
+   * Compiles a path in the restricted syntax described on the class.
+   *
+   * @param path
+   *            JSON path
+   * @return compiled path
+   * @throws IllegalArgumentException
+   *             if the path uses unsupported syntax
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static StreamingJsonPath compile(String path) {
+    return new StreamingJsonPath(path, new PathParser(path.trim()).parse());
+  }
+
+  /**
+   * Streams a JSON file and passes every matching value to the action.
+   *
+   * @param filePath
+   *            JSON file path
+   * @param action
+   *            consumer of the matched values
+   * @throws IOException
+   *             if the file cannot be read or is not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void forEachMatch(String filePath, Consumer<String> action) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(new File(filePath).toPath(), StandardCharsets.UTF_8)) {
+      forEachMatch(reader, action);
+    } catch (IOException e) {
+      throw new IOException("Unable to read JSON file: " + filePath, e);
+    }
+  }
+
+  /**
+   * Streams a JSON document from a reader and passes every matching value to
+   * the action. The reader is not closed.
+   *
+   * @param reader
+   *            reader of the JSON document
+   * @param action
+   *            consumer of the matched values
+   * @throws IOException
+   *             if the document cannot be read or is not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void forEachMatch(Reader reader, Consumer<String> action) throws IOException {
+    JsonReader json = new JsonReader(reader);
+    try {
+      walk(json, 0, action);
+    } catch (JsonParseException | IllegalStateException e) {
+      throw new IOException("Invalid JSON at " + json.getPath() + " while evaluating " + path, e);
+    }
+  }
+
+  /**
+   * Streams a JSON file and collects all matching values.
+   *
+   * @param filePath
+   *            JSON file path
+   * @return List of matched values
+   * @throws IOException
+   *             if the file cannot be read or is not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> readAll(String filePath) throws IOException {
+    List<String> values = new ArrayList<>();
+    forEachMatch(filePath, values::add);
+    return values;
+  }
+
+  /**
+   * Streams a JSON file and counts the matching values.
+   *
+   * @param filePath
+   *            JSON file path
+   * @return number of matches
+   * @throws IOException
+   *             if the file cannot be read or is not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long count(String filePath) throws IOException {
+    long[] count = new long[1];
+    forEachMatch(filePath, value -> count[0]++);
+    return count[0];
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+
+  /**
+   * Applies the steps from the given one on to the value the reader is
+   * positioned on, consuming that value completely.
+   */
+  private void walk(JsonReader json, int step, Consumer<String> action) throws IOException {
+    if (step == steps.length) {
+      action.accept(readValue(json));
+      return;
+    }
+    Step current = steps[step];
+    JsonToken token = json.peek();
+    if (token == JsonToken.BEGIN_OBJECT && (current.name != null || current.wildcard)) {
+      json.beginObject();
+      while (json.hasNext()) {
+        String name = json.nextName();
+        if (current.wildcard || name.equals(current.name))
+          walk(json, step + 1, action);
+        else
+          json.skipValue();
+      }
+      json.endObject();
+    } else if (token == JsonToken.BEGIN_ARRAY && current.name == null) {
+      json.beginArray();
+      int index = 0;
+      while (json.hasNext()) {
+        if (current.filter != null) {
+          JsonElement element = JsonParser.parseReader(json);
+          if (current.filter.test(element))
+            walkTree(element, step + 1, action);
+        } else if (current.wildcard || index == current.index) {
+          walk(json, step + 1, action);
+        } else {
+          json.skipValue();
+        }
+        index++;
+      }
+      json.endArray();
+    } else {
+      json.skipValue();
+    }
+  }
+
+  /**
+   * Applies the steps from the given one on to an already parsed element, used
+   * below filter steps.
+   */
+  private void walkTree(JsonElement element, int step, Consumer<String> action) {
+    if (step == steps.length) {
+      action.accept(format(element));
+      return;
+    }
+    Step current = steps[step];
+    if (element.isJsonObject() && (current.name != null || current.wildcard)) {
+      for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+        if (current.wildcard || member.getKey().equals(current.name))
+          walkTree(member.getValue(), step + 1, action);
+      }
+    } else if (element.isJsonArray() && current.name == null) {
+      int index = 0;
+      for (JsonElement item : element.getAsJsonArray()) {
+        if (current.filter != null ? current.filter.test(item) : current.wildcard || index == current.index)
+          walkTree(item, step + 1, action);
+        index++;
+      }
+    }
+  }
+
+  private static String readValue(JsonReader json) throws IOException {
+    switch (json.peek()) {
+      case STRING :
+      case NUMBER :
+        return json.nextString();
+      case BOOLEAN :
+        return String.valueOf(json.nextBoolean());
+      case NULL :
+        json.nextNull();
+        return "null";
+      default :
+        return JsonParser.parseReader(json).toString();
+    }
+  }
+
+  private static String format(JsonElement element) {
+    if (element.isJsonPrimitive())
+      return element.getAsString();
+    return element.toString();
+  }
+
+  /**
+   * A single path step: an object member (name), an array index, a wildcard or
+   * an array filter.
+   */
+  private static final class Step {
+    final String name;
+    final int index;
+    final boolean wildcard;
+    final Filter filter;
+
+    private Step(String name, int index, boolean wildcard, Filter filter) {
+      this.name = name;
+      this.index = index;
+      this.wildcard = wildcard;
+      this.filter = filter;
+    }
+
+    static Step member(String name) {
+      return new Step(name, -1, false, null);
+    }
+
+    static Step index(int index) {
+      return new Step(null, index, false, null);
+    }
+
+    static Step wildcard() {
+      return new Step(null, -1, true, null);
+    }
+
+    static Step filter(Filter filter) {
+      return new Step(null, -1, false, filter);
+    }
+  }
+
+  /**
+   * Filter of the form {@code @.a.b op literal} or {@code @.a.b}.
+   */
+  private static final class Filter {
+    final String[] memberPath;
+    final String operator;
+    final Object literal;
+
+    Filter(String[] memberPath, String operator, Object literal) {
+      this.memberPath = memberPath;
+      this.operator = operator;
+      this.literal = literal;
+    }
+
+    boolean test(JsonElement element) {
+      JsonElement value = element;
+      for (String member : memberPath) {
+        if (value == null || !value.isJsonObject())
+          return false;
+        value = value.getAsJsonObject().get(member);
+      }
+      if (value == null)
+        return false;
+      if (operator == null)
+        return !value.isJsonNull();
+      if (literal == null) {
+        boolean isNull = value.isJsonNull();
+        return operator.equals("==") ? isNull : operator.equals("!=") && !isNull;
+      }
+      if (!value.isJsonPrimitive())
+        return operator.equals("!=");
+      JsonPrimitive primitive = value.getAsJsonPrimitive();
+      int comparison;
+      if (literal instanceof BigDecimal && primitive.isNumber()) {
+        comparison = primitive.getAsBigDecimal().compareTo((BigDecimal) literal);
+      } else if (literal instanceof String && primitive.isString()) {
+        comparison = primitive.getAsString().compareTo((String) literal);
+      } else if (literal instanceof Boolean && primitive.isBoolean()) {
+        comparison = primitive.getAsBoolean() == (Boolean) literal ? 0 : 1;
+        if (!operator.equals("==") && !operator.equals("!="))
+          return false;
+      } else {
+        return operator.equals("!=");
+      }
+      switch (operator) {
+        case "==" :
+          return comparison == 0;
+        case "!=" :
+          return comparison != 0;
+        case "<" :
+          return comparison < 0;
+        case "<=" :
+          return comparison <= 0;
+        case ">" :
+          return comparison > 0;
+        default :
+          return comparison >= 0;
+      }
+    }
+  }
+
+  /**
+   * Recursive descent parser of the supported path syntax.
+   */
+  private static final class PathParser {
+    private final String path;
+    private int pos;
+
+    PathParser(String path) {
+      this.path = path;
+    }
+
+    Step[] parse() {
+      if (!path.startsWith("$"))
+        throw unsupported("path must start with $");
+      pos = 1;
+      List<Step> steps = new ArrayList<>();
+      while (pos < path.length()) {
+        char c = path.charAt(pos);
+        if (c == '.') {
+          pos++;
+          if (peek('.'))
+            throw unsupported("deep scan '..' is not supported");
+          if (peek('*')) {
+            pos++;
+            steps.add(Step.wildcard());
+          } else {
+            steps.add(Step.member(readName()));
+          }
+        } else if (c == '[') {
+          pos++;
+          steps.add(readBracket());
+        } else {
+          throw unsupported("unexpected '" + c + "' at position " + pos);
+        }
+      }
+      return steps.toArray(new Step[0]);
+    }
+
+    private Step readBracket() {
+      Step step;
+      skipSpaces();
+      if (peek('*')) {
+        pos++;
+        step = Step.wildcard();
+      } else if (peek('\'') || peek('"')) {
+        step = Step.member(readQuoted());
+      } else if (peek('?')) {
+        pos++;
+        expect('(');
+        step = Step.filter(readFilter());
+        expect(')');
+      } else {
+        int start = pos;
+        while (pos < path.length() && Character.isDigit(path.charAt(pos)))
+          pos++;
+        if (start == pos)
+          throw unsupported("unsupported array selector at position " + start);
+        step = Step.index(Integer.parseInt(path.substring(start, pos)));
+      }
+      skipSpaces();
+      expect(']');
+      return step;
+    }
+
+    private Filter readFilter() {
+      skipSpaces();
+      expect('@');
+      List<String> members = new ArrayList<>();
+      while (peek('.') || peek('[')) {
+        if (peek('.')) {
+          pos++;
+          members.add(readName());
+        } else {
+          pos++;
+          skipSpaces();
+          members.add(readQuoted());
+          skipSpaces();
+          expect(']');
+        }
+      }
+      skipSpaces();
+      if (peek(')'))
+        return new Filter(members.toArray(new String[0]), null, null);
+      String operator = readOperator();
+      skipSpaces();
+      Object literal = readLiteral();
+      skipSpaces();
+      return new Filter(members.toArray(new String[0]), operator, literal);
+    }
+
+    private String readOperator() {
+      for (String operator : new String[]{"==", "!=", "<=", ">=", "<", ">"}) {
+        if (path.startsWith(operator, pos)) {
+          pos += operator.length();
+          return operator;
+        }
+      }
+      throw unsupported("unsupported filter operator at position " + pos);
+    }
+
+    private Object readLiteral() {
+      if (peek('\'') || peek('"'))
+        return readQuoted();
+      int start = pos;
+      while (pos < path.length() && path.charAt(pos) != ')' && !Character.isWhitespace(path.charAt(pos)))
+        pos++;
+      String token = path.substring(start, pos);
+      switch (token) {
+        case "true" :
+          return Boolean.TRUE;
+        case "false" :
+          return Boolean.FALSE;
+        case "null" :
+          return null;
+        default :
+          try {
+            return new BigDecimal(token);
+          } catch (NumberFormatException e) {
+            throw unsupported("unsupported filter value '" + token + "'");
+          }
+      }
+    }
+
+    private String readName() {
+      int start = pos;
+      while (pos < path.length() && path.charAt(pos) != '.' && path.charAt(pos) != '['
+          && path.charAt(pos) != ' ' && path.charAt(pos) != ')' && path.charAt(pos) != '=' && path.charAt(pos) != '!'
+          && path.charAt(pos) != '<' && path.charAt(pos) != '>')
+        pos++;
+      if (start == pos)
+        throw unsupported("missing member name at position " + start);
+      return path.substring(start, pos);
+    }
+
+    private String readQuoted() {
+      char quote = path.charAt(pos++);
+      int end = path.indexOf(quote, pos);
+      if (end < 0)
+        throw unsupported("unterminated quote at position " + pos);
+      String value = path.substring(pos, end);
+      pos = end + 1;
+      return value;
+    }
+
+    private boolean peek(char c) {
+      return pos < path.length() && path.charAt(pos) == c;
+    }
+
+    private void expect(char c) {
+      if (!peek(c))
+        throw unsupported("expected '" + c + "' at position " + pos);
+      pos++;
+    }
+
+    private void skipSpaces() {
+      while (pos < path.length() && path.charAt(pos) == ' ')
+        pos++;
+    }
+
+    private IllegalArgumentException unsupported(String reason) {
+      return new IllegalArgumentException("Unsupported streaming JSON path '" + path + "': " + reason);
+    }
+  }
+}
@@ -0,0 +1,323 @@
+package io.github.the_sdet.xml;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Evaluates a simple XPath location path over an XML document in a single
+ * forward pass of a StAX reader, without building a DOM. Memory use depends
+ * only on the element depth and the size of a single match, so files of any
+ * size can be searched.
+ * <p>
+ * Supported path syntax:
+ * <ul>
+ * <li>{@code /a/b} - child steps, {@code //b} - descendant steps</li>
+ * <li>{@code *} - any element, {@code ns:b} - element with namespace
+ * prefix</li>
+ * <li>{@code [@id='42']}, {@code [@id]} - attribute predicates</li>
+ * <li>{@code /@id} - attribute of the matched elements, as last step</li>
+ * </ul>
+ * Matched elements yield their text content (the text of all descendants) and
+ * matched attributes yield their value. Values are emitted in document order:
+ * a matched element is complete when it ends, so matches nested inside it are
+ * held back until then and follow it.
+ * <p>
+ * Instances are immutable and can be reused from several threads.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class StreamingXPath {
+  static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private final XmlLocationPath path;
+
+  private StreamingXPath(XmlLocationPath path) {
+    this.path = path;
+  }
+
+  /**
+   * Compiles a path in the XPath subset described on the class.
+   *
+   * @param path
+   *            XPath location path
+   * @return compiled path
+   * @throws IllegalArgumentException
+   *             if the path uses unsupported syntax
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static StreamingXPath compile(String path) {
+    return new StreamingXPath(XmlLocationPath.compile(path));
+  }
+
+  /**
+   * Streams an XML file and passes every matching value to the action.
+   *
+   * @param filePath
+   *            XML file path
+   * @param action
+   *            consumer of the matched values
+   * @throws IOException
+   *             if the file cannot be read or is not valid XML
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void forEachMatch(String filePath, Consumer<String> action) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(filePath)), BUFFER_SIZE)) {
+      forEachMatch(in, action);
+    } catch (IOException e) {
+      throw new IOException("Unable to read XML file: " + filePath, e);
+    }
+  }
+
+  /**
+   * Streams an XML document from an input stream and passes every matching
+   * value to the action. The input stream is not closed.
+   *
+   * @param in
+   *            input stream of the XML document
+   * @param action
+   *            consumer of the matched values
+   * @throws IOException
+   *             if the document cannot be read or is not valid XML
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void forEachMatch(InputStream in, Consumer<String> action) throws IOException {
+    Pass pass = new Pass(in);
+    try {
+      String value;
+      while ((value = pass.next()) != null)
+        action.accept(value);
+    } finally {
+      pass.close();
+    }
+  }
+
+  /**
+   * Streams the matching values of an XML file. The file is read as the stream
+   * is consumed, so the stream must be closed, e.g. with try-with-resources.
+   *
+   * @param filePath
+   *            XML file path
+   * @return Stream of the matched values
+   * @throws IOException
+   *             if the file cannot be opened
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Stream<String> stream(String filePath) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(filePath)), BUFFER_SIZE);
+    Pass pass;
+    try {
+      pass = new Pass(in);
+    } catch (IOException e) {
+      in.close();
+      throw new IOException("Unable to read XML file: " + filePath, e);
+    }
+    Spliterator<String> matches = new Spliterators.AbstractSpliterator<String>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super String> action) {
+        String value;
+        try {
+          value = pass.next();
+        } catch (IOException e) {
+          throw new UncheckedIOException("Unable to read XML file: " + filePath, e);
+        }
+        if (value == null)
+          return false;
+        action.accept(value);
+        return true;
+      }
+    };
+    return StreamSupport.stream(matches, false).onClose(() -> {
+      try (in) {
+        pass.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Streams an XML file and collects all matching values.
+   *
+   * @param filePath
+   *            XML file path
+   * @return List of matched values
+   * @throws IOException
+   *             if the file cannot be read or is not valid XML
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> readAll(String filePath) throws IOException {
+    List<String> values = new ArrayList<>();
+    forEachMatch(filePath, values::add);
+    return values;
+  }
+
+  /**
+   * Streams an XML file and counts the matching values.
+   *
+   * @param filePath
+   *            XML file path
+   * @return number of matches
+   * @throws IOException
+   *             if the file cannot be read or is not valid XML
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long count(String filePath) throws IOException {
+    long[] count = new long[1];
+    forEachMatch(filePath, value -> count[0]++);
+    return count[0];
+  }
+
+  @Override
+  public String toString() {
+    return path.toString();
+  }
+
+  /**
+   * Returns the value of an attribute of the current start element, given as
+   * {@code name} (any namespace) or {@code prefix:name}.
+   */
+  static String attribute(XMLStreamReader reader, String name) {
+    int colon = name.indexOf(':');
+    String prefix = colon < 0 ? null : name.substring(0, colon);
+    String localName = colon < 0 ? name : name.substring(colon + 1);
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      if (localName.equals(reader.getAttributeLocalName(i))
+          && (prefix == null || prefix.equals(reader.getAttributePrefix(i))))
+        return reader.getAttributeValue(i);
+    }
+    return null;
+  }
+
+  private static XMLInputFactory newInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  /**
+   * A single pass over a document, pulling events until the next match.
+   */
+  private final class Pass {
+    private final XMLStreamReader reader;
+    private final XmlLocationPath.Matcher matcher = path.matcher();
+    private final Deque<Capture> captures = new ArrayDeque<>();
+    private final Deque<String> ready = new ArrayDeque<>();
+
+    Pass(InputStream in) throws IOException {
+      try {
+        reader = INPUT_FACTORY.createXMLStreamReader(in);
+      } catch (XMLStreamException e) {
+        throw new IOException("Invalid XML while evaluating " + path, e);
+      }
+    }
+
+    String next() throws IOException {
+      try {
+        while (ready.isEmpty() && reader.hasNext()) {
+          switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT :
+              startElement();
+              break;
+            case XMLStreamConstants.END_ELEMENT :
+              if (!captures.isEmpty() && captures.peekLast().depth == matcher.depth())
+                endCapture();
+              matcher.endElement();
+              break;
+            case XMLStreamConstants.CHARACTERS :
+            case XMLStreamConstants.CDATA :
+            case XMLStreamConstants.SPACE :
+              if (!captures.isEmpty()) {
+                for (Capture capture : captures)
+                  capture.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+              }
+              break;
+            default :
+              break;
+          }
+        }
+      } catch (XMLStreamException e) {
+        throw new IOException("Invalid XML at " + e.getLocation() + " while evaluating " + path, e);
+      }
+      return ready.poll();
+    }
+
+    private void startElement() {
+      boolean matched = matcher.startElement(reader.getPrefix(), reader.getLocalName(),
+          name -> attribute(reader, name));
+      if (!matched)
+        return;
+      if (path.getAttribute() == null) {
+        captures.add(new Capture(matcher.depth()));
+      } else {
+        String value = attribute(reader, path.getAttribute());
+        if (value != null)
+          ready.add(value);
+      }
+    }
+
+    /**
+     * Completes the innermost matched element. Its value and the values nested
+     * in it are ready if it is the outermost match, else they are held back by
+     * the enclosing match, which comes first in document order.
+     */
+    private void endCapture() {
+      Capture capture = captures.removeLast();
+      Capture outer = captures.peekLast();
+      List<String> values = outer == null ? null : outer.nested();
+      if (values == null) {
+        ready.add(capture.text.toString());
+        if (capture.nested != null)
+          ready.addAll(capture.nested);
+      } else {
+        values.add(capture.text.toString());
+        if (capture.nested != null)
+          values.addAll(capture.nested);
+      }
+    }
+
+    void close() throws IOException {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  private static final class Capture {
+    private final int depth;
+    private final StringBuilder text = new StringBuilder();
+    private List<String> nested;
+
+    Capture(int depth) {
+      this.depth = depth;
+    }
+
+    List<String> nested() {
+      if (nested == null)
+        nested = new ArrayList<>();
+      return nested;
+    }
+  }
+}
@@ -0,0 +1,341 @@
+package io.github.the_sdet.xml;
+
+import io.github.the_sdet.files.FileUtils;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Rewrites an XML file in a single streaming pass, applying value updates and
+ * deletions to the elements and attributes matched by simple XPaths while all
+ * other events are copied through unchanged. Time is linear in the file size
+ * and memory depends only on the element depth, unlike the DOM round trip of
+ * readXML, updateXMLData and saveXML.
+ * <p>
+ * Paths use the XPath subset of {@link StreamingXPath}. An element update
+ * replaces the whole content of the element with the text value, an attribute
+ * update replaces the value of an existing attribute. Deletions remove the
+ * element with its content, or the attribute. When several rules match,
+ * deletions win over updates and later updates win over earlier ones.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * int changes = new StreamingXmlRewriter().update("//Header/MessageId", "42").update("//Trade/@status", "NEW")
+ *     .delete("//Signature").rewrite("in.xml", "out.xml");
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class StreamingXmlRewriter {
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+  private final List<Rule> rules = new ArrayList<>();
+
+  /**
+   * Replaces the content of the matched elements, or the value of the matched
+   * attributes, with a value.
+   *
+   * @param elementXpath
+   *            XPath of the elements or attributes to update
+   * @param value
+   *            new value
+   * @return this rewriter
+   * @throws IllegalArgumentException
+   *             if the path uses unsupported syntax
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public StreamingXmlRewriter update(String elementXpath, String value) {
+    rules.add(new Rule(XmlLocationPath.compile(elementXpath), value));
+    return this;
+  }
+
+  /**
+   * Removes the matched elements including their content, or the matched
+   * attributes.
+   *
+   * @param elementXpath
+   *            XPath of the elements or attributes to delete
+   * @return this rewriter
+   * @throws IllegalArgumentException
+   *             if the path uses unsupported syntax
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public StreamingXmlRewriter delete(String elementXpath) {
+    rules.add(new Rule(XmlLocationPath.compile(elementXpath), null));
+    return this;
+  }
+
+  /**
+   * Rewrites an XML file. The output is written to a temporary file next to the
+   * target and moved into place once complete, so the input and output may be
+   * the same file. The rewritten file keeps the permissions of the file it
+   * replaces.
+   *
+   * @param inputFilePath
+   *            path of the XML file to read
+   * @param outputFilePath
+   *            path of the XML file to write
+   * @return number of elements and attributes updated or deleted
+   * @throws IOException
+   *             if a file cannot be read or written, or the input is not valid
+   *             XML
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int rewrite(String inputFilePath, String outputFilePath) throws IOException {
+    Path target = Paths.get(outputFilePath).toAbsolutePath();
+    Path temp = FileUtils.createTempFileFor(target);
+    try {
+      int changes;
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(inputFilePath)),
+          StreamingXPath.BUFFER_SIZE);
+          FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+          OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), StreamingXPath.BUFFER_SIZE)) {
+        changes = rewrite(in, out);
+        out.flush();
+        channel.force(false);
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      return changes;
+    } catch (IOException e) {
+      throw new IOException("Unable to rewrite XML file: " + inputFilePath, e);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Rewrites an XML document from an input stream to an output stream. Neither
+   * stream is closed.
+   *
+   * @param in
+   *            input stream of the XML document
+   * @param out
+   *            output stream for the rewritten document
+   * @return number of elements and attributes updated or deleted
+   * @throws IOException
+   *             if the document cannot be read or written, or is not valid XML
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int rewrite(InputStream in, OutputStream out) throws IOException {
+    XMLEventReader reader = null;
+    XMLEventWriter writer = null;
+    try {
+      reader = StreamingXPath.INPUT_FACTORY.createXMLEventReader(in);
+      XMLEventFactory events = XMLEventFactory.newInstance();
+      XmlLocationPath.Matcher[] matchers = new XmlLocationPath.Matcher[rules.size()];
+      for (int i = 0; i < matchers.length; i++)
+        matchers[i] = rules.get(i).path.matcher();
+      int changes = 0;
+      while (reader.hasNext()) {
+        XMLEvent event = reader.nextEvent();
+        if (writer == null) {
+          String encoding = event.isStartDocument() && ((StartDocument) event).encodingSet()
+              ? ((StartDocument) event).getCharacterEncodingScheme()
+              : "UTF-8";
+          writer = OUTPUT_FACTORY.createXMLEventWriter(out, encoding);
+        }
+        if (event.isEndElement()) {
+          for (XmlLocationPath.Matcher matcher : matchers)
+            matcher.endElement();
+        } else if (event.isStartElement()) {
+          StartElement element = event.asStartElement();
+          Action action = startElement(element, matchers);
+          changes += action.changes;
+          if (action.deleteElement || action.content != null) {
+            if (!action.deleteElement) {
+              writer.add(action.element(events, element));
+              writer.add(events.createCharacters(action.content));
+            }
+            skipContent(reader);
+            XMLEvent end = reader.nextEvent();
+            if (!action.deleteElement)
+              writer.add(end);
+            for (XmlLocationPath.Matcher matcher : matchers)
+              matcher.endElement();
+            continue;
+          }
+          event = action.element(events, element);
+        }
+        writer.add(event);
+      }
+      if (writer != null)
+        writer.flush();
+      return changes;
+    } catch (XMLStreamException e) {
+      throw new IOException("Invalid XML at " + e.getLocation() + " while rewriting", e);
+    } finally {
+      close(writer, reader);
+    }
+  }
+
+  /**
+   * Enters an element with all matchers and collects what the matching rules do
+   * to it.
+   */
+  private Action startElement(StartElement element, XmlLocationPath.Matcher[] matchers) {
+    Action action = new Action();
+    String prefix = element.getName().getPrefix();
+    String localName = element.getName().getLocalPart();
+    for (int i = 0; i < matchers.length; i++) {
+      if (!matchers[i].startElement(prefix, localName, name -> attribute(element, name)))
+        continue;
+      Rule rule = rules.get(i);
+      String attributeName = rule.path.getAttribute();
+      if (attributeName == null) {
+        if (rule.value == null)
+          action.deleteElement = true;
+        else
+          action.content = rule.value;
+      } else if (attribute(element, attributeName) != null) {
+        action.attributes.add(new String[]{attributeName, rule.value});
+      }
+    }
+    if (action.deleteElement)
+      action.changes = 1;
+    else
+      action.changes = (action.content != null ? 1 : 0) + action.changedAttributes(element);
+    return action;
+  }
+
+  /**
+   * Skips the content of the current element, stopping before its end element.
+   */
+  private static void skipContent(XMLEventReader reader) throws XMLStreamException {
+    int depth = 0;
+    while (true) {
+      XMLEvent event = reader.peek();
+      if (event.isEndElement() && depth == 0)
+        return;
+      reader.nextEvent();
+      if (event.isStartElement())
+        depth++;
+      else if (event.isEndElement())
+        depth--;
+    }
+  }
+
+  /**
+   * Returns the value of an attribute, given as {@code name} (any namespace) or
+   * {@code prefix:name}.
+   */
+  private static String attribute(StartElement element, String name) {
+    for (Iterator<?> it = element.getAttributes(); it.hasNext();) {
+      Attribute attribute = (Attribute) it.next();
+      if (nameMatches(attribute.getName(), name))
+        return attribute.getValue();
+    }
+    return null;
+  }
+
+  private static boolean nameMatches(QName qName, String name) {
+    if (name.indexOf(':') < 0)
+      return name.equals(qName.getLocalPart());
+    return name.equals(XmlLocationPath.qualifiedName(qName.getPrefix(), qName.getLocalPart()));
+  }
+
+  private static void close(XMLEventWriter writer, XMLEventReader reader) throws IOException {
+    try {
+      if (writer != null)
+        writer.close();
+      if (reader != null)
+        reader.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static final class Rule {
+    private final XmlLocationPath path;
+    private final String value;
+
+    Rule(XmlLocationPath path, String value) {
+      this.path = path;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Changes to apply to one start element. Attribute changes hold the name and
+   * the new value, null for deletion.
+   */
+  private static final class Action {
+    private boolean deleteElement;
+    private String content;
+    private final List<String[]> attributes = new ArrayList<>();
+    private int changes;
+
+    /**
+     * Counts the attributes of an element matched by at least one change, so
+     * that an attribute both updated and deleted, or matched by two names, is
+     * counted once.
+     */
+    int changedAttributes(StartElement element) {
+      if (attributes.isEmpty())
+        return 0;
+      int changed = 0;
+      for (Iterator<?> it = element.getAttributes(); it.hasNext();) {
+        QName name = ((Attribute) it.next()).getName();
+        for (String[] change : attributes) {
+          if (nameMatches(name, change[0])) {
+            changed++;
+            break;
+          }
+        }
+      }
+      return changed;
+    }
+
+    StartElement element(XMLEventFactory events, StartElement element) {
+      if (attributes.isEmpty())
+        return element;
+      List<Attribute> rewritten = new ArrayList<>();
+      for (Iterator<?> it = element.getAttributes(); it.hasNext();) {
+        Attribute attribute = (Attribute) it.next();
+        boolean deleted = false;
+        String value = attribute.getValue();
+        for (String[] change : attributes) {
+          if (!nameMatches(attribute.getName(), change[0]))
+            continue;
+          if (change[1] == null)
+            deleted = true;
+          else
+            value = change[1];
+        }
+        if (!deleted)
+          rewritten.add(events.createAttribute(attribute.getName(), value));
+      }
+      return events.createStartElement(element.getName(), rewritten.iterator(), element.getNamespaces());
+    }
+  }
+}
@@ -1,29 +1,67 @@
 package io.github.the_sdet.xml;
 
+import io.github.the_sdet.common.BoundedCache;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathFactory;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
- * This class handles all JSON related Utilities and Helper methods
+ * This class handles all XML related Utilities and Helper methods
+ * <p>
+ * The XML factories are looked up once. Every thread gets its own
+ * DocumentBuilder and Transformer, which are reset before each use, so
+ * repeated calls skip the factory lookup and the methods are thread safe.
+ * XPath expressions are compiled once per thread through {@link XPathCache}.
  *
  * @author Pabitra Swain (contact.the.sdet@gmail.com)
  */
 @SuppressWarnings("unused")
 public class XMLUtils {
+  private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+  private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+  private static final BoundedCache<String, Pattern> PATTERN_CACHE = new BoundedCache<>(256);
+
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> {
+    synchronized (DOCUMENT_BUILDER_FACTORY) {
+      try {
+        return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+      } catch (ParserConfigurationException e) {
+        throw new IllegalStateException("Unable to create DocumentBuilder", e);
+      }
+    }
+  });
+  private static final ThreadLocal<Transformer> TRANSFORMER = ThreadLocal.withInitial(() -> {
+    synchronized (TRANSFORMER_FACTORY) {
+      try {
+        return TRANSFORMER_FACTORY.newTransformer();
+      } catch (TransformerConfigurationException e) {
+        throw new IllegalStateException("Unable to create Transformer", e);
+      }
+    }
+  });
+
   /**
    * Reads an XML file and returns a Document object representing its structure.
    *
@@ -35,11 +73,8 @@ public class XMLUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static Document readXML(String filePath) throws Exception {
-    // Create a DocumentBuilderFactory
-    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-    // Create a DocumentBuilder
-    DocumentBuilder builder = factory.newDocumentBuilder();
+    // Get the DocumentBuilder of this thread
+    DocumentBuilder builder = documentBuilder();
 
     // Parse the XML file and return the Document object
     return builder.parse(new File(filePath));
@@ -58,11 +93,8 @@ public class XMLUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static void saveXML(Document doc, String filePath) throws Exception {
-    // Create a TransformerFactory
-    TransformerFactory transformerFactory = TransformerFactory.newInstance();
-
-    // Create a Transformer
-    Transformer transformer = transformerFactory.newTransformer();
+    // Get the Transformer of this thread
+    Transformer transformer = transformer();
 
     // Create a DOMSource from the Document
     DOMSource source = new DOMSource(doc);
@@ -89,8 +121,29 @@ public class XMLUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static void updateXMLData(Document doc, String elementXpath, String value) throws Exception {
-    XPath xpath = XPathFactory.newInstance().newXPath();
-    XPathExpression expr = xpath.compile(elementXpath);
+    updateXMLData(doc, elementXpath, value, null);
+  }
+
+  /**
+   * Updates the value of an XML element identified by an XPath using namespace
+   * prefixes.
+   *
+   * @param doc
+   *            The Document object representing the XML structure.
+   * @param elementXpath
+   *            The XPath expression to identify the XML element.
+   * @param value
+   *            The new value to set for the XML element.
+   * @param namespaceContext
+   *            The namespace context resolving the prefixes of the XPath.
+   * @throws Exception
+   *             if an error occurs during XPath evaluation or updating the XML
+   *             element.
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void updateXMLData(Document doc, String elementXpath, String value,
+      NamespaceContext namespaceContext) throws Exception {
+    XPathExpression expr = XPathCache.get(elementXpath, namespaceContext);
     Node node = (Node) expr.evaluate(doc, XPathConstants.NODE);
     if (node != null) {
       node.setTextContent(value);
@@ -110,14 +163,101 @@ public class XMLUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static void deleteXMLNode(Document doc, String elementXpath) throws Exception {
-    XPath xpath = XPathFactory.newInstance().newXPath();
-    XPathExpression expr = xpath.compile(elementXpath);
+    deleteXMLNode(doc, elementXpath, null);
+  }
+
+  /**
+   * Deletes an XML node identified by an XPath using namespace prefixes.
+   *
+   * @param doc
+   *            The Document object representing the XML structure.
+   * @param elementXpath
+   *            The XPath expression to identify the XML node.
+   * @param namespaceContext
+   *            The namespace context resolving the prefixes of the XPath.
+   * @throws Exception
+   *             if an error occurs during XPath evaluation or deleting the XML
+   *             node.
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void deleteXMLNode(Document doc, String elementXpath, NamespaceContext namespaceContext)
+      throws Exception {
+    XPathExpression expr = XPathCache.get(elementXpath, namespaceContext);
     Node node = (Node) expr.evaluate(doc, XPathConstants.NODE);
     if (node != null) {
       node.getParentNode().removeChild(node);
     }
   }
 
+  /**
+   * Reads the values matching a simple XPath from an XML file in a single
+   * streaming pass, without loading the document into memory. See
+   * {@link StreamingXPath} for the supported XPath subset.
+   *
+   * @param filePath
+   *            The path to the XML file to be read.
+   * @param elementXpath
+   *            The XPath expression to identify the XML elements or attributes.
+   * @return List of the text content of matched elements or the values of
+   *         matched attributes, in document order.
+   * @throws IOException
+   *             if the file cannot be read or is not valid XML.
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<String> getElementsFromXmlFile(String filePath, String elementXpath) throws IOException {
+    return StreamingXPath.compile(elementXpath).readAll(filePath);
+  }
+
+  /**
+   * Streams the values matching a simple XPath from an XML file, reading the
+   * file as the stream is consumed. The stream must be closed. See
+   * {@link StreamingXPath} for the supported XPath subset.
+   *
+   * @param filePath
+   *            The path to the XML file to be read.
+   * @param elementXpath
+   *            The XPath expression to identify the XML elements or attributes.
+   * @return Stream of the text content of matched elements or the values of
+   *         matched attributes, in document order.
+   * @throws IOException
+   *             if the file cannot be opened.
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<String> streamElementsFromXmlFile(String filePath, String elementXpath) throws IOException {
+    return StreamingXPath.compile(elementXpath).stream(filePath);
+  }
+
+  /**
+   * Updates and deletes elements or attributes of an XML file in a single
+   * streaming pass, without loading the document into memory. See
+   * {@link StreamingXmlRewriter} for details.
+   *
+   * @param inputFilePath
+   *            The path to the XML file to be read.
+   * @param outputFilePath
+   *            The path to the file where the XML document will be saved, may
+   *            be the input file.
+   * @param updates
+   *            Map of XPath expressions and new values.
+   * @param deletions
+   *            XPath expressions of the elements or attributes to delete.
+   * @return number of elements and attributes updated or deleted.
+   * @throws IOException
+   *             if a file cannot be read or written, or is not valid XML.
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static int updateXMLFile(String inputFilePath, String outputFilePath, Map<String, String> updates,
+      Collection<String> deletions) throws IOException {
+    StreamingXmlRewriter rewriter = new StreamingXmlRewriter();
+    for (Map.Entry<String, String> update : updates.entrySet()) {
+      rewriter.update(update.getKey(), update.getValue());
+    }
+    for (String deletion : deletions) {
+      rewriter.delete(deletion);
+    }
+    return rewriter.rewrite(inputFilePath, outputFilePath);
+  }
+
   /**
    * Extracts content from an XML response using a regular expression.
    *
@@ -129,11 +269,68 @@ public class XMLUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static String getContentFromXmlResponse(String response, String regex) {
-    Pattern pattern = Pattern.compile(regex);
-    Matcher matcher = pattern.matcher(response);
+    Matcher matcher = PATTERN_CACHE.get(regex, Pattern::compile).matcher(response);
     if (matcher.find()) {
       return matcher.group(1); // Assuming the first group captures the desired content
     }
     return null;
   }
-}
\ No newline at end of file
+
+  /**
+   * Extracts the capture groups of several regular expressions from an XML
+   * response. Each expression is compiled once and searched for up to its first
+   * match only.
+   *
+   * @param response
+   *            The XML response string.
+   * @param regexes
+   *            The regular expressions to match the content.
+   * @return Map of every regular expression and the groups of its first match,
+   *         or the whole match for expressions without groups. Expressions
+   *         without a match are mapped to an empty List.
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Map<String, List<String>> getContentsFromXmlResponse(String response, String... regexes) {
+    Map<String, List<String>> contents = new LinkedHashMap<>();
+    for (String regex : regexes) {
+      if (contents.containsKey(regex))
+        continue;
+      Matcher matcher = PATTERN_CACHE.get(regex, Pattern::compile).matcher(response);
+      if (!matcher.find()) {
+        contents.put(regex, Collections.emptyList());
+      } else if (matcher.groupCount() == 0) {
+        contents.put(regex, Collections.singletonList(matcher.group()));
+      } else {
+        List<String> groups = new ArrayList<>(matcher.groupCount());
+        for (int group = 1; group <= matcher.groupCount(); group++) {
+          groups.add(matcher.group(group));
+        }
+        contents.put(regex, groups);
+      }
+    }
+    return contents;
+  }
+
+  /**
+   * Returns size, hit and miss statistics of the cache of compiled regular
+   * expressions.
+   *
+   * @return cache statistics in readable form
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String getPatternCacheStatistics() {
+    return PATTERN_CACHE.toString();
+  }
+
+  private static DocumentBuilder documentBuilder() {
+    DocumentBuilder builder = DOCUMENT_BUILDER.get();
+    builder.reset();
+    return builder;
+  }
+
+  private static Transformer transformer() {
+    Transformer transformer = TRANSFORMER.get();
+    transformer.reset();
+    return transformer;
+  }
+}
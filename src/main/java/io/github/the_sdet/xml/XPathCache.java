@@ -0,0 +1,287 @@
+package io.github.the_sdet.xml;
+
+import io.github.the_sdet.common.BoundedCache;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of compiled {@link XPathExpression}s used by all XMLUtils
+ * methods, so that an expression applied to many documents is compiled only
+ * once. Expressions are keyed by the expression String and the namespace URIs
+ * its prefixes resolve to in the given namespace context, so a new but
+ * equivalent context per call still hits the cache.
+ * <p>
+ * Compiled expressions are not thread safe, so every thread keeps its own
+ * cache of at most {@link #setMaxSize(int) maxSize} expressions. Hit and miss
+ * counts are kept across all threads to verify the cache is effective.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class XPathCache {
+  /**
+   * Default number of compiled expressions kept per thread.
+   */
+  public static final int DEFAULT_MAX_SIZE = 512;
+
+  private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+  private static final LongAdder HITS = new LongAdder();
+  private static final LongAdder MISSES = new LongAdder();
+  private static final AtomicInteger GENERATION = new AtomicInteger();
+  private static volatile int maxSize = DEFAULT_MAX_SIZE;
+
+  private static final ThreadLocal<ThreadCache> CACHE = ThreadLocal.withInitial(ThreadCache::new);
+
+  /**
+   * Returns the compiled form of an XPath expression, compiling it on first use.
+   *
+   * @param expression
+   *            XPath expression
+   * @return compiled XPath expression
+   * @throws XPathExpressionException
+   *             if the expression cannot be compiled
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static XPathExpression get(String expression) throws XPathExpressionException {
+    return get(expression, null);
+  }
+
+  /**
+   * Returns the compiled form of an XPath expression using namespace prefixes,
+   * compiling it on first use.
+   *
+   * @param expression
+   *            XPath expression
+   * @param namespaceContext
+   *            namespace context resolving the prefixes of the expression, null
+   *            for none
+   * @return compiled XPath expression
+   * @throws XPathExpressionException
+   *             if the expression cannot be compiled
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static XPathExpression get(String expression, NamespaceContext namespaceContext)
+      throws XPathExpressionException {
+    ThreadCache threadCache = CACHE.get();
+    threadCache.refresh();
+    boolean[] compiled = new boolean[1];
+    try {
+      XPathExpression compiledExpression = threadCache.expressions.get(new Key(expression, namespaceContext), key -> {
+        compiled[0] = true;
+        return threadCache.compile(key);
+      });
+      (compiled[0] ? MISSES : HITS).increment();
+      return compiledExpression;
+    } catch (CompileException e) {
+      MISSES.increment();
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Sets the maximum number of compiled expressions kept per thread.
+   *
+   * @param maxSize
+   *            maximum number of compiled expressions
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setMaxSize(int maxSize) {
+    if (maxSize < 1)
+      throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+    XPathCache.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the number of compiled expressions cached for the current thread.
+   *
+   * @return size of the cache of the current thread
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static int size() {
+    ThreadCache threadCache = CACHE.get();
+    threadCache.refresh();
+    return threadCache.expressions.size();
+  }
+
+  /**
+   * Returns the number of lookups served from the cache, across all threads.
+   *
+   * @return hit count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getHitCount() {
+    return HITS.sum();
+  }
+
+  /**
+   * Returns the number of lookups that had to compile the expression, across
+   * all threads.
+   *
+   * @return miss count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getMissCount() {
+    return MISSES.sum();
+  }
+
+  /**
+   * Returns the ratio of hits to all lookups.
+   *
+   * @return hit rate between 0.0 and 1.0
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static double getHitRate() {
+    long hits = getHitCount();
+    long total = hits + getMissCount();
+    return total == 0 ? 0.0 : (double) hits / total;
+  }
+
+  /**
+   * Removes the compiled expressions of all threads and resets the statistics.
+   * Other threads drop their expressions on their next lookup.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void clear() {
+    GENERATION.incrementAndGet();
+    HITS.reset();
+    MISSES.reset();
+  }
+
+  /**
+   * Returns hit and miss statistics of the cache in readable form.
+   *
+   * @return cache statistics
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String getStatistics() {
+    return "XPathCache{maxSize=" + maxSize + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+        + ", hitRate=" + String.format("%.3f", getHitRate()) + "}";
+  }
+
+  /**
+   * Compiled expressions and the XPath compiling them, owned by one thread.
+   */
+  private static final class ThreadCache {
+    private final BoundedCache<Key, XPathExpression> expressions = new BoundedCache<>(maxSize);
+    private final XPath xpath;
+    private int generation = GENERATION.get();
+
+    ThreadCache() {
+      synchronized (XPATH_FACTORY) {
+        xpath = XPATH_FACTORY.newXPath();
+      }
+    }
+
+    void refresh() {
+      int currentGeneration = GENERATION.get();
+      if (generation != currentGeneration) {
+        expressions.invalidateAll();
+        generation = currentGeneration;
+      }
+      if (expressions.getMaxSize() != maxSize)
+        expressions.setMaxSize(maxSize);
+    }
+
+    XPathExpression compile(Key key) {
+      xpath.reset();
+      if (key.namespaceContext != null)
+        xpath.setNamespaceContext(key.namespaceContext);
+      try {
+        return xpath.compile(key.expression);
+      } catch (XPathExpressionException e) {
+        throw new CompileException(e);
+      }
+    }
+  }
+
+  /**
+   * Expression and the bindings of its namespace prefixes. The namespace
+   * context is only kept to compile the expression, it is not part of the key.
+   */
+  private static final class Key {
+    private final String expression;
+    private final NamespaceContext namespaceContext;
+    private final Map<String, String> bindings;
+
+    Key(String expression, NamespaceContext namespaceContext) {
+      this.expression = expression;
+      this.namespaceContext = namespaceContext;
+      this.bindings = namespaceContext == null ? null : resolvePrefixes(expression, namespaceContext);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key))
+        return false;
+      Key key = (Key) o;
+      return expression.equals(key.expression) && Objects.equals(bindings, key.bindings);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * expression.hashCode() + Objects.hashCode(bindings);
+    }
+
+    /**
+     * Resolves every prefix used in the expression, i.e. every name followed by
+     * a single colon outside of string literals.
+     */
+    private static Map<String, String> resolvePrefixes(String expression, NamespaceContext namespaceContext) {
+      Map<String, String> bindings = new TreeMap<>();
+      int length = expression.length();
+      for (int i = 0; i < length; i++) {
+        char c = expression.charAt(i);
+        if (c == '\'' || c == '"') {
+          int end = expression.indexOf(c, i + 1);
+          i = end < 0 ? length : end;
+        } else if (isNameStart(c) && (i == 0 || !isNamePart(expression.charAt(i - 1)))) {
+          int end = i + 1;
+          while (end < length && isNamePart(expression.charAt(end)))
+            end++;
+          if (end + 1 < length && expression.charAt(end) == ':' && expression.charAt(end + 1) != ':') {
+            String prefix = expression.substring(i, end);
+            bindings.put(prefix, String.valueOf(namespaceContext.getNamespaceURI(prefix)));
+          }
+          i = end - 1;
+        }
+      }
+      return bindings;
+    }
+
+    private static boolean isNameStart(char c) {
+      return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isNamePart(char c) {
+      return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+  }
+
+  /**
+   * Carries a checked compile failure out of the cache loader.
+   */
+  private static final class CompileException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    CompileException(XPathExpressionException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized XPathExpressionException getCause() {
+      return (XPathExpressionException) super.getCause();
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package io.github.the_sdet.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A compiled location path of the XPath subset understood by the streaming XML
+ * classes, matched against start and end element events instead of a DOM.
+ * <p>
+ * Supported syntax:
+ * <ul>
+ * <li>{@code /name} - child step, {@code //name} - descendant step</li>
+ * <li>{@code *} as name test for any element, {@code prefix:name} to match the
+ * namespace prefix as well, otherwise the local name is matched</li>
+ * <li>{@code [@attr='value']} and {@code [@attr]} predicates, several per
+ * step</li>
+ * <li>a final {@code /@attr} step selecting an attribute of the matched
+ * elements</li>
+ * </ul>
+ * The path is matched like a non-deterministic automaton: every open element
+ * keeps the set of steps that may match its children, so a pass needs memory
+ * for the element depth only.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+final class XmlLocationPath {
+  private static final int MAX_STEPS = 63;
+
+  private final String path;
+  private final Step[] steps;
+  private final String attribute;
+
+  private XmlLocationPath(String path, Step[] steps, String attribute) {
+    this.path = path;
+    this.steps = steps;
+    this.attribute = attribute;
+  }
+
+  /**
+   * Compiles a path in the syntax described on the class.
+   *
+   * @throws IllegalArgumentException
+   *             if the path uses unsupported syntax
+   */
+  static XmlLocationPath compile(String path) {
+    return new PathParser(path.trim()).parse();
+  }
+
+  /**
+   * @return name of the attribute selected by a final {@code @attr} step, null
+   *         if the path selects elements
+   */
+  String getAttribute() {
+    return attribute;
+  }
+
+  /**
+   * @return new matcher for a single pass over a document
+   */
+  Matcher matcher() {
+    return new Matcher();
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+
+  /**
+   * Formats an element or attribute name the way it is written in paths, i.e.
+   * {@code prefix:name} or just {@code name} without a prefix.
+   */
+  static String qualifiedName(String prefix, String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  /**
+   * Tracks the open elements of one pass. Call {@link #startElement} and
+   * {@link #endElement} for every element in document order.
+   */
+  final class Matcher {
+    private long[] states = new long[32];
+    private int depth;
+
+    private Matcher() {
+      states[0] = 1L;
+    }
+
+    /**
+     * Enters an element.
+     *
+     * @param prefix
+     *            namespace prefix of the element, empty or null for none
+     * @param localName
+     *            local name of the element
+     * @param attributes
+     *            lookup of attribute values by {@code name} or
+     *            {@code prefix:name}, returning null for missing attributes
+     * @return true if the element is matched by the element steps of the path
+     */
+    boolean startElement(String prefix, String localName, Function<String, String> attributes) {
+      long parent = states[depth];
+      long next = 0;
+      boolean matched = false;
+      for (long bits = parent; bits != 0; bits &= bits - 1) {
+        int i = Long.numberOfTrailingZeros(bits);
+        Step step = steps[i];
+        if (step.descendant)
+          next |= 1L << i;
+        if (step.matches(prefix, localName, attributes)) {
+          if (i + 1 == steps.length)
+            matched = true;
+          else
+            next |= 1L << (i + 1);
+        }
+      }
+      if (++depth == states.length)
+        states = Arrays.copyOf(states, depth * 2);
+      states[depth] = next;
+      return matched;
+    }
+
+    /**
+     * Leaves the current element.
+     */
+    void endElement() {
+      depth--;
+    }
+
+    /**
+     * @return number of open elements
+     */
+    int depth() {
+      return depth;
+    }
+
+    /**
+     * @return true if no element below the current one can match, i.e. the
+     *         subtree can be skipped
+     */
+    boolean isDead() {
+      return states[depth] == 0;
+    }
+  }
+
+  private static final class Step {
+    private final boolean descendant;
+    private final String prefix;
+    private final String localName;
+    private final String[] predicateNames;
+    private final String[] predicateValues;
+
+    private Step(boolean descendant, String name, List<String[]> predicates) {
+      this.descendant = descendant;
+      int colon = name.indexOf(':');
+      this.prefix = colon < 0 ? null : name.substring(0, colon);
+      this.localName = colon < 0 ? name : name.substring(colon + 1);
+      this.predicateNames = new String[predicates.size()];
+      this.predicateValues = new String[predicates.size()];
+      for (int i = 0; i < predicates.size(); i++) {
+        predicateNames[i] = predicates.get(i)[0];
+        predicateValues[i] = predicates.get(i)[1];
+      }
+    }
+
+    private boolean matches(String elementPrefix, String elementLocalName, Function<String, String> attributes) {
+      if (!localName.equals("*") && !localName.equals(elementLocalName))
+        return false;
+      if (prefix != null && !prefix.equals(elementPrefix))
+        return false;
+      for (int i = 0; i < predicateNames.length; i++) {
+        String value = attributes.apply(predicateNames[i]);
+        if (value == null || (predicateValues[i] != null && !predicateValues[i].equals(value)))
+          return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Parser of the supported path syntax.
+   */
+  private static final class PathParser {
+    private final String path;
+    private int pos;
+
+    PathParser(String path) {
+      this.path = path;
+    }
+
+    XmlLocationPath parse() {
+      if (!peek('/'))
+        throw unsupported("path must start with / or //");
+      List<Step> steps = new ArrayList<>();
+      String attribute = null;
+      while (pos < path.length()) {
+        if (attribute != null)
+          throw unsupported("attribute step must be the last step");
+        boolean descendant = path.startsWith("//", pos);
+        pos += descendant ? 2 : 1;
+        if (peek('@')) {
+          if (descendant)
+            throw unsupported("descendant attribute step is not supported");
+          pos++;
+          attribute = readName();
+          continue;
+        }
+        String name = readName();
+        List<String[]> predicates = new ArrayList<>();
+        while (peek('['))
+          predicates.add(readPredicate());
+        steps.add(new Step(descendant, name, predicates));
+        if (pos < path.length() && !peek('/'))
+          throw unsupported("unexpected '" + path.charAt(pos) + "' at position " + pos);
+      }
+      if (steps.isEmpty())
+        throw unsupported("path must select at least one element");
+      if (steps.size() > MAX_STEPS)
+        throw unsupported("more than " + MAX_STEPS + " steps");
+      return new XmlLocationPath(path, steps.toArray(new Step[0]), attribute);
+    }
+
+    private String[] readPredicate() {
+      expect('[');
+      skipSpaces();
+      expect('@');
+      String name = readName();
+      skipSpaces();
+      String value = null;
+      if (peek('=')) {
+        pos++;
+        skipSpaces();
+        value = readQuoted();
+        skipSpaces();
+      }
+      expect(']');
+      return new String[]{name, value};
+    }
+
+    private String readName() {
+      int start = pos;
+      while (pos < path.length() && "/[]=@ ".indexOf(path.charAt(pos)) < 0)
+        pos++;
+      if (start == pos)
+        throw unsupported("missing name at position " + start);
+      return path.substring(start, pos);
+    }
+
+    private String readQuoted() {
+      if (!peek('\'') && !peek('"'))
+        throw unsupported("expected quoted value at position " + pos);
+      char quote = path.charAt(pos++);
+      int end = path.indexOf(quote, pos);
+      if (end < 0)
+        throw unsupported("unterminated quote at position " + pos);
+      String value = path.substring(pos, end);
+      pos = end + 1;
+      return value;
+    }
+
+    private boolean peek(char c) {
+      return pos < path.length() && path.charAt(pos) == c;
+    }
+
+    private void expect(char c) {
+      if (!peek(c))
+        throw unsupported("expected '" + c + "' at position " + pos);
+      pos++;
+    }
+
+    private void skipSpaces() {
+      while (pos < path.length() && path.charAt(pos) == ' ')
+        pos++;
+    }
+
+    private IllegalArgumentException unsupported(String reason) {
+      return new IllegalArgumentException("Unsupported streaming XPath '" + path + "': " + reason);
+    }
+  }
+}
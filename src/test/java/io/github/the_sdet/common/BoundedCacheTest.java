@@ -0,0 +1,125 @@
+package io.github.the_sdet.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies loading, statistics and CLOCK eviction of {@link BoundedCache}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class BoundedCacheTest {
+
+  @Test
+  void loadsEachKeyOnceAndCountsHitsAndMisses() {
+    AtomicInteger loads = new AtomicInteger();
+    BoundedCache<String, Integer> cache = new BoundedCache<>(4);
+    for (int i = 0; i < 3; i++)
+      assertEquals(1, cache.get("a", key -> loads.incrementAndGet()));
+    assertEquals(1, loads.get());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertNull(cache.getIfPresent("b"));
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  void evictsEntryNotUsedSinceLastSweep() {
+    List<String> removed = new ArrayList<>();
+    BoundedCache<String, String> cache = new BoundedCache<>(3, (key, value) -> removed.add(key));
+    cache.get("a", key -> key);
+    cache.get("b", key -> key);
+    cache.get("c", key -> key);
+    cache.getIfPresent("a");
+    cache.getIfPresent("c");
+    cache.get("d", key -> key);
+    assertEquals(List.of("b"), removed);
+    assertEquals(3, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertNotNull(cache.getIfPresent("a"));
+  }
+
+  @Test
+  void evictsOldestWhenAllEntriesWereUsed() {
+    List<String> removed = new ArrayList<>();
+    BoundedCache<String, String> cache = new BoundedCache<>(2, (key, value) -> removed.add(key));
+    cache.get("a", key -> key);
+    cache.get("b", key -> key);
+    cache.getIfPresent("a");
+    cache.getIfPresent("b");
+    cache.get("c", key -> key);
+    assertEquals(List.of("a"), removed);
+  }
+
+  @Test
+  void invalidatedEntriesAreNotEvictedAgain() {
+    List<String> removed = new ArrayList<>();
+    BoundedCache<String, String> cache = new BoundedCache<>(2, (key, value) -> removed.add(key));
+    cache.get("a", key -> key);
+    cache.get("b", key -> key);
+    cache.invalidate("a");
+    cache.get("c", key -> key);
+    cache.get("d", key -> key);
+    assertEquals(List.of("a", "b"), removed);
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void putReplacesWithoutCountingLookups() {
+    List<String> removed = new ArrayList<>();
+    BoundedCache<String, String> cache = new BoundedCache<>(2, (key, value) -> removed.add(value));
+    cache.put("a", "1");
+    cache.put("a", "2");
+    cache.put("b", "3");
+    cache.put("c", "4");
+    assertEquals(List.of("1", "2"), removed);
+    assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    assertEquals("4", cache.getIfPresent("c"));
+  }
+
+  @Test
+  void shrinkingEvictsImmediately() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(10);
+    for (int i = 0; i < 10; i++)
+      cache.get(i, key -> key);
+    cache.setMaxSize(3);
+    assertEquals(3, cache.size());
+    assertThrows(IllegalArgumentException.class, () -> cache.setMaxSize(0));
+  }
+
+  @Test
+  void staysBoundedUnderConcurrentUse() throws Exception {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(16);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int seed = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 20_000; i++) {
+            int key = (i * 31 + seed) % (i % 4 == 0 ? 64 : 8);
+            assertEquals(key, cache.get(key, k -> k));
+          }
+        }));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(cache.size() <= 16);
+    assertEquals(160_000, cache.getHitCount() + cache.getMissCount());
+  }
+}
@@ -0,0 +1,132 @@
+package io.github.the_sdet.db;
+
+import io.github.the_sdet.logger.Log;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scenario throughput of {@link DatabaseUtils} with a connection opened per
+ * scenario versus a shared {@link ConnectionPool}, against an embedded H2
+ * database. A scenario runs a handful of reads, like the DB checks of a test
+ * scenario.
+ * <p>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=io.github.the_sdet.db.ConnectionPoolBenchmark
+ * </pre>
+ *
+ * Optional arguments: JDBC url, user and password of another database with
+ * the same SQL dialect, e.g. an H2 server, where connecting costs a network
+ * round trip.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+public final class ConnectionPoolBenchmark {
+  private static final int THREADS = 8;
+  private static final int SCENARIOS = 4000;
+  private static final int ROWS = 100;
+
+  private ConnectionPoolBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    String url = args.length > 0 ? args[0] : "jdbc:h2:mem:pool-benchmark;DB_CLOSE_DELAY=-1";
+    String user = args.length > 1 ? args[1] : "sa";
+    String password = args.length > 2 ? args[2] : "";
+    Log.info("Connection pool benchmark on " + url);
+    Configurator.setLevel(LogManager.getRootLogger().getName(), Level.WARN);
+    createTable(url, user, password);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      Scenario perScenario = id -> {
+        DatabaseUtils db = new DatabaseUtils(DriverManager.getConnection(url, user, password));
+        try {
+          runScenario(db, id);
+        } finally {
+          db.closeDatabaseConnection();
+        }
+      };
+      try (ConnectionPool pool = new ConnectionPool(url, user, password, THREADS, THREADS)) {
+        DatabaseUtils shared = new DatabaseUtils(pool);
+        Scenario pooled = id -> runScenario(shared, id);
+        for (int round = 1; round <= 3; round++) {
+          report("round " + round + " connection per scenario", run(executor, perScenario));
+          report("round " + round + " pooled", run(executor, pooled));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private interface Scenario {
+    void run(int id) throws SQLException;
+  }
+
+  private static void runScenario(DatabaseUtils db, int id) {
+    int key = id % ROWS + 1;
+    check(db.readSingleDataFromDb("SELECT name FROM benchmark_item WHERE id = ?", key) != null);
+    check(db.readSingleRowFromDbWithColumnNames("SELECT * FROM benchmark_item WHERE id = ?", key).size() == 3);
+    check(db.readSingleColumnFromDb("SELECT id FROM benchmark_item WHERE price > ?", 50).size() > 0);
+    check(db.readDataFromDb("SELECT name, price FROM benchmark_item WHERE id BETWEEN ? AND ?", key, key + 9)
+        .size() > 0);
+    check(db.readSingleDataFromDb("SELECT COUNT(*) FROM benchmark_item") != null);
+  }
+
+  private static long run(ExecutorService executor, Scenario scenario) throws Exception {
+    long start = System.nanoTime();
+    List<Future<?>> futures = new ArrayList<>(SCENARIOS);
+    for (int i = 0; i < SCENARIOS; i++) {
+      int id = i;
+      futures.add(executor.submit(() -> {
+        scenario.run(id);
+        return null;
+      }));
+    }
+    for (Future<?> future : futures)
+      future.get();
+    return System.nanoTime() - start;
+  }
+
+  private static void report(String name, long nanos) {
+    System.out.printf("%-40s %8.0f scenarios/s (%d scenarios, %d threads, %d ms)%n", name,
+        SCENARIOS * 1e9 / nanos, SCENARIOS, THREADS, nanos / 1_000_000);
+  }
+
+  private static void createTable(String url, String user, String password) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(url, user, password);
+        Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS benchmark_item");
+      statement.execute("CREATE TABLE benchmark_item (id INT PRIMARY KEY, name VARCHAR(64), price INT)");
+      try (PreparedStatement insert = connection
+          .prepareStatement("INSERT INTO benchmark_item (id, name, price) VALUES (?, ?, ?)")) {
+        for (int i = 1; i <= ROWS; i++) {
+          insert.setInt(1, i);
+          insert.setString(2, "item-" + i);
+          insert.setInt(3, i);
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+    }
+  }
+
+  private static void check(boolean condition) {
+    if (!condition)
+      throw new IllegalStateException("Unexpected query result");
+  }
+}
@@ -0,0 +1,155 @@
+package io.github.the_sdet.db;
+
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies borrowing, returning and resetting connections of
+ * {@link ConnectionPool}, and the proxies it hands out for connections,
+ * statements, result sets and metadata, against an embedded H2 database.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class ConnectionPoolTest {
+  private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void createPool() throws SQLException {
+    String url = "jdbc:h2:mem:connection-pool-" + DATABASE_COUNT.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+    pool = new ConnectionPool(url, "sa", "", 1, 1).setBorrowTimeout(Duration.ofMillis(200));
+    try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(64))");
+    }
+  }
+
+  @AfterEach
+  void closePool() {
+    pool.close();
+  }
+
+  @Test
+  void returnedConnectionIsReusedBehindNewProxy() throws SQLException {
+    Connection first = pool.getConnection();
+    Connection physical = first.unwrap(Connection.class);
+    assertEquals(1, pool.getActiveConnections());
+    first.close();
+    assertEquals(0, pool.getActiveConnections());
+    assertEquals(1, pool.getIdleConnections());
+
+    try (Connection second = pool.getConnection()) {
+      assertNotSame(first, second);
+      assertSame(physical, second.unwrap(Connection.class));
+      assertFalse(second.isClosed());
+    }
+    assertEquals(1, pool.getOpenConnections());
+  }
+
+  @Test
+  void uncommittedWorkIsRolledBackOnReturn() throws SQLException {
+    try (Connection connection = pool.getConnection()) {
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        statement.executeUpdate("INSERT INTO item VALUES (1, 'uncommitted')");
+      }
+    }
+    try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement();
+        ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM item")) {
+      assertTrue(connection.getAutoCommit());
+      assertTrue(rows.next());
+      assertEquals(0, rows.getInt(1));
+    }
+  }
+
+  @Test
+  void statementsLeftOpenAreClosedOnReturn() throws SQLException {
+    Statement statement;
+    PreparedStatement prepared;
+    Statement closedByBorrower;
+    try (Connection connection = pool.getConnection()) {
+      statement = connection.createStatement();
+      prepared = connection.prepareStatement("SELECT name FROM item WHERE id = ?");
+      closedByBorrower = connection.createStatement();
+      closedByBorrower.close();
+    }
+    assertTrue(statement.isClosed());
+    assertTrue(prepared.isClosed());
+    assertTrue(closedByBorrower.isClosed());
+  }
+
+  @Test
+  void borrowTimesOutWhenPoolIsExhausted() throws SQLException {
+    try (Connection connection = pool.getConnection()) {
+      SQLException timeout = assertThrows(SQLException.class, pool::getConnection);
+      assertTrue(timeout.getMessage().startsWith("Timed out after 200 ms"), timeout.getMessage());
+    }
+    try (Connection connection = pool.getConnection()) {
+      assertFalse(connection.isClosed());
+    }
+  }
+
+  @Test
+  void returnedProxyRejectsFurtherUse() throws SQLException {
+    Connection connection = pool.getConnection();
+    Statement statement = connection.createStatement();
+    connection.close();
+    connection.close();
+
+    assertTrue(connection.isClosed());
+    assertThrows(SQLException.class, connection::createStatement);
+    assertThrows(SQLException.class, () -> statement.executeQuery("SELECT 1"));
+    try (Connection next = pool.getConnection()) {
+      assertFalse(next.isClosed());
+    }
+  }
+
+  @Test
+  void unwrapReturnsPhysicalConnection() throws SQLException {
+    try (Connection connection = pool.getConnection()) {
+      Connection physical = connection.unwrap(Connection.class);
+      assertNotSame(connection, physical);
+      assertTrue(connection.isWrapperFor(JdbcConnection.class));
+      assertSame(physical, connection.unwrap(JdbcConnection.class));
+    }
+  }
+
+  @Test
+  void statementsResultSetsAndMetadataPointBackToProxies() throws SQLException {
+    try (Connection connection = pool.getConnection();
+        PreparedStatement statement = connection.prepareStatement("SELECT id FROM item WHERE id > ?")) {
+      assertSame(connection, statement.getConnection());
+      statement.setInt(1, 0);
+      try (ResultSet rows = statement.executeQuery()) {
+        assertSame(statement, rows.getStatement());
+        assertSame(connection, rows.getStatement().getConnection());
+      }
+      DatabaseMetaData metaData = connection.getMetaData();
+      assertSame(connection, metaData.getConnection());
+      try (ResultSet tables = metaData.getTables(null, null, "ITEM", null)) {
+        assertTrue(tables.next());
+        Statement owner = tables.getStatement();
+        if (owner != null)
+          assertSame(connection, owner.getConnection());
+      }
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package io.github.the_sdet.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the single-row and single-value reads of {@link DatabaseUtils}
+ * execute their query once and ask the driver for a single row, against an
+ * embedded H2 database whose statements record their executions and max rows.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class DatabaseUtilsQueryCountTest {
+  private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+
+  private final AtomicInteger executions = new AtomicInteger();
+  private final List<Integer> maxRows = new CopyOnWriteArrayList<>();
+  private Connection connection;
+  private DatabaseUtils db;
+
+  @BeforeEach
+  void createDatabase() throws SQLException {
+    connection = counting(DriverManager.getConnection("jdbc:h2:mem:query-count-" + DATABASE_COUNT.incrementAndGet()));
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(64))");
+      statement.execute("INSERT INTO item SELECT X, 'item-' || X FROM SYSTEM_RANGE(1, 1000)");
+    }
+    db = new DatabaseUtils(connection);
+    executions.set(0);
+    maxRows.clear();
+  }
+
+  @AfterEach
+  void closeDatabase() {
+    db.closeDatabaseConnection();
+  }
+
+  @Test
+  void readSingleDataFromDbExecutesOnce() {
+    assertEquals("item-1", db.readSingleDataFromDb("SELECT name FROM item ORDER BY id"));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void parameterizedReadSingleDataFromDbExecutesOnce() {
+    assertEquals("item-42", db.readSingleDataFromDb("SELECT name FROM item WHERE id = ?", 42));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void readSingleRowFromDbExecutesOnce() {
+    assertEquals(Arrays.asList("1", "item-1"), db.readSingleRowFromDb("SELECT id, name FROM item ORDER BY id"));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void readSingleRowFromDbWithColumnNamesExecutesOnce() {
+    assertEquals("item-7",
+        db.readSingleRowFromDbWithColumnNames("SELECT id, name FROM item WHERE id = ?", 7).get("NAME"));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void readSingleRowFromDbWithColumnNamesReturnsEmptyMapWithoutRows() {
+    assertTrue(db.readSingleRowFromDbWithColumnNames("SELECT id, name FROM item WHERE id < 0").isEmpty());
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void singleRowReadDoesNotTruncateLaterReadsOfCachedStatement() {
+    String sql = "SELECT name FROM item WHERE id <= ? ORDER BY id";
+    assertEquals("item-1", db.readSingleDataFromDb(sql, 10));
+    assertEquals(10, db.readDataFromDb(sql, 10).size());
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  void singleRowReadsFetchOneRowAndFullReadsAllRows() {
+    String sql = "SELECT id, name FROM item WHERE id <= ? ORDER BY id";
+    assertEquals(Arrays.asList("1", "item-1"), db.readSingleRowFromDb(sql, 500));
+    assertEquals("item-1", db.readSingleRowFromDbWithColumnNames(sql, 500).get("NAME"));
+    assertEquals(500, db.readDataFromDb(sql, 500).size());
+    assertEquals(List.of(1, 1, 0), maxRows);
+  }
+
+  /**
+   * Wraps a connection so that the executions and max rows of its statements
+   * are recorded.
+   */
+  private Connection counting(Connection physical) {
+    return proxy(Connection.class, physical, (method, args, result) -> {
+      if (result instanceof PreparedStatement)
+        return proxy(PreparedStatement.class, (PreparedStatement) result, this::record);
+      if (result instanceof Statement)
+        return proxy(Statement.class, (Statement) result, this::record);
+      return result;
+    });
+  }
+
+  private Object record(Method method, Object[] args, Object result) {
+    if (method.getName().startsWith("execute"))
+      executions.incrementAndGet();
+    else if (method.getName().equals("setMaxRows"))
+      maxRows.add((Integer) args[0]);
+    return result;
+  }
+
+  private interface ResultHandler {
+    Object handle(Method method, Object[] args, Object result);
+  }
+
+  private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+      try {
+        return handler.handle(method, args, method.invoke(target, args));
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }));
+  }
+}
@@ -0,0 +1,99 @@
+package io.github.the_sdet.excel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies chunked and parallel reads of {@link ExcelDataProvider} and that a
+ * closed provider hands out no more rows.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class ExcelDataProviderTest {
+  private static final int ROWS = 1000;
+
+  @TempDir
+  Path dir;
+
+  private String excel;
+
+  @BeforeEach
+  void createExcel() throws IOException {
+    excel = dir.resolve("data.xlsx").toString();
+    List<List<String>> rows = new ArrayList<>();
+    rows.add(Arrays.asList("Id", "Name"));
+    for (int i = 1; i <= ROWS; i++)
+      rows.add(Arrays.asList(String.valueOf(i), "user-" + i));
+    ExcelUtils.writeExcelSheet(excel, "Users", rows);
+  }
+
+  @Test
+  void handsOutRowsInOrderAndInChunks() throws IOException {
+    try (ExcelDataProvider provider = new ExcelDataProvider(excel, "Users", 100)) {
+      assertEquals("1", provider.nextRow().get("Id"));
+      List<Map<String, String>> chunk = provider.nextChunk();
+      assertEquals(100, chunk.size());
+      assertEquals("user-2", chunk.get(0).get("Name"));
+      int rest = 0;
+      while (provider.hasNext()) {
+        provider.next();
+        rest++;
+      }
+      assertEquals(ROWS - 101, rest);
+      assertTrue(provider.nextChunk().isEmpty());
+    }
+  }
+
+  @Test
+  void parallelStreamReadsEveryRowOnce() throws IOException {
+    ExcelDataProvider provider = new ExcelDataProvider(excel, "Users", 64);
+    Set<String> ids;
+    try (Stream<Map<String, String>> rows = provider.stream()) {
+      ids = rows.parallel().map(row -> row.get("Id")).collect(Collectors.toSet());
+    }
+    assertEquals(IntStream.rangeClosed(1, ROWS).mapToObj(String::valueOf).collect(Collectors.toSet()), ids);
+    assertFalse(provider.hasNext());
+  }
+
+  @Test
+  void closedProviderHandsOutNoDecodedRow() throws IOException {
+    ExcelDataProvider provider = new ExcelDataProvider(excel, "Users");
+    provider.nextRow();
+    assertTrue(provider.hasNext());
+    provider.close();
+
+    assertFalse(provider.hasNext());
+    assertThrows(NoSuchElementException.class, provider::next);
+    assertThrows(NoSuchElementException.class, provider::nextRow);
+    assertTrue(provider.nextChunk().isEmpty());
+    assertEquals(0, provider.stream().count());
+  }
+
+  @Test
+  void closedSheetStreamEndsImmediately() throws IOException {
+    Stream<Map<String, String>> rows = ExcelUtils.streamExcelSheet(excel, "Users");
+    Iterator<Map<String, String>> iterator = rows.iterator();
+    iterator.next();
+    rows.close();
+    assertFalse(iterator.hasNext());
+  }
+}
@@ -0,0 +1,124 @@
+package io.github.the_sdet.excel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the snapshot round trip of {@link ExcelSnapshotCache}, the fallback
+ * to the Excel file for damaged or outdated snapshots and the pruning of stale
+ * snapshots.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class ExcelSnapshotCacheTest {
+  private static final FileTime OLD = FileTime.fromMillis(1_000_000_000_000L);
+
+  @TempDir
+  Path dir;
+
+  private String defaultDirectory;
+  private Path snapshots;
+  private String excel;
+
+  @BeforeEach
+  void createExcel() throws IOException {
+    defaultDirectory = ExcelSnapshotCache.getSnapshotDirectory();
+    snapshots = dir.resolve("snapshots");
+    ExcelSnapshotCache.setSnapshotDirectory(snapshots.toString());
+    excel = dir.resolve("data.xlsx").toString();
+    writeExcel("alice", OLD);
+  }
+
+  @AfterEach
+  void restoreDirectory() {
+    ExcelSnapshotCache.setSnapshotDirectory(defaultDirectory);
+  }
+
+  @Test
+  void secondReadIsServedFromSnapshot() throws IOException {
+    List<Map<String, String>> parsed = ExcelSnapshotCache.readExcelSheet(excel, "Users");
+    assertEquals(ExcelUtils.readExcelSheet(excel, "Users"), parsed);
+    Path snapshot = onlySnapshot();
+    Files.setLastModifiedTime(snapshot, OLD);
+
+    assertEquals(parsed, ExcelSnapshotCache.readExcelSheet(excel, "Users"));
+    assertEquals(OLD, Files.getLastModifiedTime(snapshot), "snapshot must be read, not rewritten");
+  }
+
+  @Test
+  void truncatedSnapshotFallsBackToExcelAndIsRewritten() throws IOException {
+    List<Map<String, String>> expected = ExcelSnapshotCache.readExcelSheet(excel, "Users");
+    Path snapshot = onlySnapshot();
+    byte[] bytes = Files.readAllBytes(snapshot);
+    Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+    assertEquals(expected, ExcelSnapshotCache.readExcelSheet(excel, "Users"));
+    assertEquals(bytes.length, Files.size(onlySnapshot()));
+  }
+
+  @Test
+  void corruptSnapshotFallsBackToExcel() throws IOException {
+    List<Map<String, String>> expected = ExcelSnapshotCache.readExcelSheet(excel, "Users");
+    Path snapshot = onlySnapshot();
+    byte[] bytes = Files.readAllBytes(snapshot);
+    Arrays.fill(bytes, 8, bytes.length, (byte) 0x7F);
+    Files.write(snapshot, bytes);
+
+    assertEquals(expected, ExcelSnapshotCache.readExcelSheet(excel, "Users"));
+  }
+
+  @Test
+  void changedExcelIsParsedAgainAndStaleSnapshotIsDeleted() throws IOException {
+    ExcelSnapshotCache.readExcelSheet(excel, "Users");
+    Path stale = onlySnapshot();
+
+    writeExcel("bob", FileTime.fromMillis(OLD.toMillis() + 60_000));
+    List<Map<String, String>> dataSet = ExcelSnapshotCache.readExcelSheet(excel, "Users");
+
+    assertEquals("bob", dataSet.get(0).get("Name"));
+    assertNotEquals(stale, onlySnapshot());
+  }
+
+  @Test
+  void sheetsAndOptionsKeepTheirOwnSnapshots() throws IOException {
+    ExcelSnapshotCache.readExcelSheet(excel, "Users");
+    ExcelSnapshotCache.readExcelSheet(excel, "Users", true);
+    assertEquals(2, listSnapshots().size());
+    ExcelSnapshotCache.clearSnapshots();
+    assertTrue(listSnapshots().isEmpty());
+  }
+
+  private void writeExcel(String name, FileTime lastModified) throws IOException {
+    ExcelUtils.writeExcelSheet(excel, "Users", Arrays.asList(Arrays.asList("Name", "Age"),
+        Arrays.asList(name, "30"), Arrays.asList("carol", "41")));
+    Files.setLastModifiedTime(Path.of(excel), lastModified);
+  }
+
+  private Path onlySnapshot() throws IOException {
+    List<Path> files = listSnapshots();
+    assertEquals(1, files.size(), "snapshots: " + files);
+    return files.get(0);
+  }
+
+  private List<Path> listSnapshots() throws IOException {
+    try (Stream<Path> files = Files.list(snapshots)) {
+      return files.collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package io.github.the_sdet.excel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies typed cells and the per-format style pool of {@link ExcelWriter}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class ExcelWriterTest {
+  private static final int ROWS = 5000;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void formattedColumnsShareOnePooledStylePerFormat() throws IOException {
+    String file = dir.resolve("formatted.xlsx").toString();
+    Map<String, String> formats = new LinkedHashMap<>();
+    formats.put("Amount", "#,##0.00");
+    formats.put("Date", "yyyy-mm-dd");
+    try (ExcelWriter writer = new ExcelWriter()) {
+      writer.writeSheet("Orders", Arrays.asList("Id", "Amount", "Date", "Paid"), formats,
+          IntStream.range(0, ROWS).mapToObj(ExcelWriterTest::order)).save(file);
+      assertSame(writer.getCellStyle("#,##0.00"), writer.getCellStyle("#,##0.00"));
+    }
+
+    try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+      // default style, bold header style and one style per format
+      assertEquals(4, workbook.getNumCellStyles());
+      Sheet sheet = workbook.getSheet("Orders");
+      assertEquals(ROWS, sheet.getLastRowNum());
+      assertTrue(workbook.getFontAt(sheet.getRow(0).getCell(0).getCellStyle().getFontIndex()).getBold());
+
+      Row last = sheet.getRow(ROWS);
+      assertEquals("ORD-" + (ROWS - 1), last.getCell(0).getStringCellValue());
+      Cell amount = last.getCell(1);
+      assertEquals(CellType.NUMERIC, amount.getCellType());
+      assertEquals((ROWS - 1) * 1.5, amount.getNumericCellValue());
+      assertEquals("#,##0.00", amount.getCellStyle().getDataFormatString());
+      Cell date = last.getCell(2);
+      assertEquals(LocalDate.of(2024, 1, 1).plusDays(ROWS - 1), date.getLocalDateTimeCellValue().toLocalDate());
+      assertEquals("yyyy-mm-dd", date.getCellStyle().getDataFormatString());
+      assertEquals(CellType.BOOLEAN, last.getCell(3).getCellType());
+    }
+  }
+
+  @Test
+  void stringRowsStayUnformattedText() throws IOException {
+    String file = dir.resolve("plain.xlsx").toString();
+    Map<String, String> row = new LinkedHashMap<>();
+    row.put("Name", "alice");
+    row.put("Age", "30");
+    ExcelUtils.writeExcelSheet(file, "Users", Stream.of(row));
+
+    try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+      Cell age = workbook.getSheet("Users").getRow(1).getCell(1);
+      assertEquals(CellType.STRING, age.getCellType());
+      assertEquals("30", age.getStringCellValue());
+      assertEquals(2, workbook.getNumCellStyles());
+    }
+  }
+
+  private static Map<String, Object> order(int i) {
+    Map<String, Object> order = new LinkedHashMap<>();
+    order.put("Id", "ORD-" + i);
+    order.put("Amount", i * 1.5);
+    order.put("Date", LocalDate.of(2024, 1, 1).plusDays(i));
+    order.put("Paid", i % 2 == 0);
+    return order;
+  }
+}
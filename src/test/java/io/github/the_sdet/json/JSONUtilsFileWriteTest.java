@@ -0,0 +1,77 @@
+package io.github.the_sdet.json;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Verifies that the atomic and async JSON file writes of {@link JSONUtils}
+ * keep the permissions of the replaced file and create new files with the same
+ * permissions as {@link JSONUtils#writeJsonToFile(String, String)}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class JSONUtilsFileWriteTest {
+  private static final String JSON = "{\"name\":\"résumé\"}";
+
+  @TempDir
+  Path dir;
+
+  @BeforeEach
+  void requirePosix() {
+    assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+  }
+
+  @Test
+  void atomicWriteKeepsPermissionsOfReplacedFile() throws IOException {
+    Path file = dir.resolve("shared.json");
+    Files.write(file, "{}".getBytes(StandardCharsets.UTF_8));
+    Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r--r--"));
+
+    JSONUtils.writeJsonToFileAtomically(JSON, file.toString());
+
+    assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    assertEquals(JSON, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    assertEquals(1, countFiles());
+  }
+
+  @Test
+  void asyncWriteKeepsNonDefaultPermissions() throws Exception {
+    Path file = dir.resolve("group.json");
+    Files.write(file, "{}".getBytes(StandardCharsets.UTF_8));
+    Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-r--"));
+
+    JSONUtils.writeJsonToFileAsync(JSON, file.toString()).get();
+
+    assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    assertEquals(JSON, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void newFileGetsSamePermissionsAsPlainWrite() throws IOException {
+    Path plain = dir.resolve("plain.json");
+    Path atomic = dir.resolve("atomic.json");
+    JSONUtils.writeJsonToFile(JSON, plain.toString());
+    JSONUtils.writeJsonToFileAtomically(JSON, atomic.toString());
+
+    assertEquals(Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(atomic));
+    assertEquals(2, countFiles());
+  }
+
+  private long countFiles() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.count();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compare time of {@link JsonDiff} on multi-MB documents: an array of order
+ * objects compared in order, ignoring order, and ignoring order with a numeric
+ * tolerance where every price is off by less than the tolerance, so that many
+ * of them fall into a neighbouring tolerance bucket. Documents are parsed once
+ * up front and only the comparison is timed.
+ * <p>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=io.github.the_sdet.json.JsonDiffBenchmark
+ * </pre>
+ *
+ * Optional argument: number of array elements, default 50000.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+public final class JsonDiffBenchmark {
+  private static final double TOLERANCE = 0.01;
+
+  private JsonDiffBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int elements = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+    Random random = new Random(42);
+    List<String> expected = new ArrayList<>(elements);
+    List<String> shifted = new ArrayList<>(elements);
+    for (int i = 0; i < elements; i++) {
+      double price = Math.round(random.nextDouble() * 100_000) / 100.0;
+      double offset = (random.nextDouble() - 0.5) * TOLERANCE;
+      long seed = random.nextLong();
+      // same seed, so that both orders only differ in their price
+      expected.add(order(i, price, new Random(seed)));
+      shifted.add(order(i, price + offset, new Random(seed)));
+    }
+    String expectedJson = "[" + String.join(",", expected) + "]";
+    Collections.shuffle(expected, new Random(7));
+    Collections.shuffle(shifted, new Random(7));
+    String shuffledJson = "[" + String.join(",", expected) + "]";
+    String shiftedJson = "[" + String.join(",", shifted) + "]";
+
+    JsonProvider provider = Configuration.defaultConfiguration().jsonProvider();
+    Object expectedDoc = provider.parse(expectedJson);
+    Object sameDoc = provider.parse(expectedJson);
+    Object shuffledDoc = provider.parse(shuffledJson);
+    Object shiftedDoc = provider.parse(shiftedJson);
+    System.out.printf("%d elements, %.1f MB per document%n", elements, expectedJson.length() / 1e6);
+
+    for (int round = 1; round <= 3; round++) {
+      report("round " + round + " in order", new JsonDiff(), expectedDoc, sameDoc);
+      report("round " + round + " shuffled, ignoring order", new JsonDiff().ignoreArrayOrder(true), expectedDoc,
+          shuffledDoc);
+      report("round " + round + " shuffled, tolerance " + TOLERANCE,
+          new JsonDiff().ignoreArrayOrder(true).numericTolerance(TOLERANCE), expectedDoc, shiftedDoc);
+      report("round " + round + " shuffled, tolerance, ignored ids",
+          new JsonDiff().ignoreArrayOrder(true).numericTolerance(TOLERANCE).ignorePath("$[*].id"), expectedDoc,
+          shiftedDoc);
+    }
+  }
+
+  private static void report(String name, JsonDiff diff, Object expected, Object actual) {
+    long start = System.nanoTime();
+    int differences = diff.compareParsed(expected, actual).size();
+    System.out.printf("%-48s %7.1f ms (%d differences)%n", name, (System.nanoTime() - start) / 1e6, differences);
+  }
+
+  private static String order(int id, double price, Random random) {
+    StringBuilder json = new StringBuilder("{\"id\":").append(id).append(",\"customer\":\"customer-")
+        .append(random.nextInt(1000)).append("\",\"price\":").append(price).append(",\"lines\":[");
+    int lines = 1 + random.nextInt(3);
+    for (int i = 0; i < lines; i++) {
+      if (i > 0)
+        json.append(',');
+      json.append("{\"sku\":\"SKU-").append(random.nextInt(5000)).append("\",\"quantity\":")
+          .append(1 + random.nextInt(9)).append('}');
+    }
+    return json.append("],\"status\":\"").append(random.nextBoolean() ? "OPEN" : "PAID").append("\"}").toString();
+  }
+}
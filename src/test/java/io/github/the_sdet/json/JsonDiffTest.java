@@ -0,0 +1,132 @@
+package io.github.the_sdet.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies differences, ignored paths, unordered array matching and numeric
+ * tolerance of {@link JsonDiff}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class JsonDiffTest {
+
+  @Test
+  void equalDocumentsHaveNoDifferences() {
+    String json = "{\"a\":1,\"b\":[true,null,\"x\"],\"c\":{\"d\":1.50}}";
+    assertTrue(new JsonDiff().compare(json, "{\"c\":{\"d\":1.5},\"b\":[true,null,\"x\"],\"a\":1.0}").isEmpty());
+  }
+
+  @Test
+  void reportsEachKindOfDifferenceWithItsPath() {
+    List<String> differences = diff(new JsonDiff(),
+        "{\"id\":1,\"name\":\"a\",\"tags\":[\"x\",\"y\"],\"gone\":0,\"odd key\":1}",
+        "{\"id\":\"1\",\"name\":\"b\",\"tags\":[\"x\"],\"new\":0,\"odd key\":2}");
+    assertEquals(List.of("TYPE_MISMATCH $.id: expected 1 but was 1", "VALUE_MISMATCH $.name: expected a but was b",
+        "MISSING $.tags[1]: expected y", "MISSING $.gone: expected 0",
+        "VALUE_MISMATCH $['odd key']: expected 1 but was 2", "UNEXPECTED $.new: actual 0"), differences);
+  }
+
+  @Test
+  void ignoredPathsSkipElementsAtAnyDepth() {
+    JsonDiff diff = new JsonDiff().ignorePath("$..timestamp").ignorePath("$.items[*].id").ignorePath("$.meta[1]");
+    assertTrue(diff.compare(
+        "{\"timestamp\":1,\"items\":[{\"id\":1,\"v\":1}],\"meta\":[0,1],\"deep\":{\"x\":{\"timestamp\":5}}}",
+        "{\"timestamp\":2,\"items\":[{\"id\":9,\"v\":1}],\"meta\":[0,7],\"deep\":{\"x\":{\"timestamp\":6}}}")
+        .isEmpty());
+  }
+
+  @Test
+  void membersNamedLikeIndexesAreNotIndexes() {
+    String expected = "{\"[0]\":1,\"list\":[1],\"*\":1}";
+    String actual = "{\"[0]\":2,\"list\":[2],\"*\":2}";
+    assertEquals(List.of("VALUE_MISMATCH $['[0]']: expected 1 but was 2",
+        "VALUE_MISMATCH $.list[0]: expected 1 but was 2", "VALUE_MISMATCH $['*']: expected 1 but was 2"),
+        diff(new JsonDiff(), expected, actual));
+    assertEquals(List.of("VALUE_MISMATCH $['[0]']: expected 1 but was 2",
+        "VALUE_MISMATCH $['*']: expected 1 but was 2"), diff(new JsonDiff().ignorePath("$.list[0]"), expected, actual));
+    assertEquals(List.of("VALUE_MISMATCH $.list[0]: expected 1 but was 2",
+        "VALUE_MISMATCH $['*']: expected 1 but was 2"), diff(new JsonDiff().ignorePath("$['[0]']"), expected, actual));
+    assertEquals(List.of("VALUE_MISMATCH $.list[0]: expected 1 but was 2"),
+        diff(new JsonDiff().ignorePath("$['[0]']").ignorePath("$['*']"), expected, actual));
+  }
+
+  @Test
+  void indexedIgnorePathDoesNotMatchBracketedMemberInUnorderedArrays() {
+    JsonDiff diff = new JsonDiff().ignoreArrayOrder(true).ignorePath("$[*][0]");
+    assertEquals(List.of("MISSING $[0]: expected {[0]=1}", "UNEXPECTED $[0]: actual {[0]=2}"),
+        diff(diff, "[{\"[0]\":1}]", "[{\"[0]\":2}]"));
+    assertTrue(diff.compare("[[1,5]]", "[[2,5]]").isEmpty());
+  }
+
+  @Test
+  void unorderedArraysMatchEqualElementsIncludingDuplicates() {
+    JsonDiff diff = new JsonDiff().ignoreArrayOrder(true);
+    assertTrue(diff.compare("[1,2,2,{\"a\":[3,4]}]", "[{\"a\":[4,3]},2,1,2]").isEmpty());
+    assertEquals(List.of("MISSING $[2]: expected 2", "UNEXPECTED $[2]: actual 3"),
+        diff(diff, "[1,2,2]", "[2,1,3]"));
+  }
+
+  @Test
+  void unorderedIndexedIgnorePathAppliesToMatchedPairs() {
+    JsonDiff diff = new JsonDiff().ignoreArrayOrder(true).ignorePath("$[0].id");
+    assertTrue(diff.compare("[{\"id\":1,\"v\":\"a\"},{\"id\":2,\"v\":\"b\"}]",
+        "[{\"id\":2,\"v\":\"b\"},{\"id\":7,\"v\":\"a\"}]").isEmpty());
+  }
+
+  @Test
+  void toleranceMatchesNumbersAcrossBucketBorders() {
+    JsonDiff diff = new JsonDiff().numericTolerance(0.05);
+    assertTrue(diff.compare("{\"a\":0.99}", "{\"a\":1.01}").isEmpty());
+    assertEquals(List.of("VALUE_MISMATCH $.a: expected 1 but was 1.1"), diff(diff, "{\"a\":1}", "{\"a\":1.1}"));
+
+    JsonDiff unordered = new JsonDiff().numericTolerance(0.05).ignoreArrayOrder(true);
+    assertTrue(unordered.compare("[0.99,2.04,3]", "[3.01,1.01,1.999]").isEmpty());
+    assertEquals(List.of("MISSING $[0]: expected 1", "UNEXPECTED $[0]: actual 1.2"),
+        diff(unordered, "[1]", "[1.2]"));
+  }
+
+  @Test
+  void toleranceMatchesObjectsWhoseNumbersStraddleBuckets() {
+    JsonDiff diff = new JsonDiff().numericTolerance(0.05).ignoreArrayOrder(true);
+    assertTrue(diff.compare("[{\"x\":0.99,\"y\":5.01,\"n\":\"a\"},{\"x\":2,\"y\":3,\"n\":\"b\"}]",
+        "[{\"x\":2.01,\"y\":2.99,\"n\":\"b\"},{\"x\":1.01,\"y\":4.99,\"n\":\"a\"}]").isEmpty());
+    assertEquals(2, diff.compare("[{\"x\":0.99,\"n\":\"a\"}]", "[{\"x\":1.2,\"n\":\"a\"}]").size());
+  }
+
+  @Test
+  void invalidIgnorePathsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new JsonDiff().ignorePath("items[0]"));
+    assertThrows(IllegalArgumentException.class, () -> new JsonDiff().ignorePath("$.items[0"));
+    assertThrows(IllegalArgumentException.class, () -> new JsonDiff().ignorePath("$['a]"));
+  }
+
+  @Test
+  void largeShuffledArraysAreMatchedInLinearTime() {
+    Random random = new Random(7);
+    List<String> elements = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++)
+      elements.add("{\"id\":" + i + ",\"price\":" + (i * 0.37) + ",\"tags\":[\"t" + (i % 13) + "\"]}");
+    String expected = "[" + String.join(",", elements) + "]";
+    Collections.shuffle(elements, random);
+    String actual = "[" + String.join(",", elements) + "]";
+    JsonDiff diff = new JsonDiff().ignoreArrayOrder(true).numericTolerance(0.01);
+    assertTimeoutPreemptively(Duration.ofSeconds(10),
+        () -> assertTrue(diff.compare(expected, actual).isEmpty()));
+  }
+
+  private static List<String> diff(JsonDiff diff, String expected, String actual) {
+    return diff.compare(expected, actual).stream().map(Object::toString).collect(Collectors.toList());
+  }
+}
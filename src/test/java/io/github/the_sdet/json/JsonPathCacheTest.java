@@ -0,0 +1,70 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that {@link JsonPathCache} is the one JsonPath cache shared by
+ * JSONUtils and direct JsonPath reads, and that its statistics count both.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class JsonPathCacheTest {
+  private static final String JSON = "{\"order\":{\"id\":42,\"items\":[{\"sku\":\"A\"},{\"sku\":\"B\"}]}}";
+
+  @BeforeEach
+  void clearCache() {
+    JsonPathCache.clear();
+  }
+
+  @AfterEach
+  void restoreSize() {
+    JsonPathCache.setMaxSize(JsonPathCache.DEFAULT_MAX_SIZE);
+  }
+
+  @Test
+  void repeatedPathIsCompiledOnce() {
+    assertEquals("42", JSONUtils.getElementValueFromJsonString(JSON, "$.order.id"));
+    assertEquals("42", JSONUtils.getElementValueFromJsonString(JSON, "$.order.id"));
+    assertEquals(1, JsonPathCache.getMissCount());
+    assertEquals(1, JsonPathCache.getHitCount());
+    assertSame(JsonPathCache.get("$.order.id"), JsonPathCache.get("$.order.id"));
+  }
+
+  @Test
+  void directJsonPathReadsShareTheCache() {
+    assertTrue(JsonPathCache.isSharedWithJsonPath());
+    JSONUtils.getElementValueFromJsonString(JSON, "$.order.items[0].sku");
+    assertEquals("A", JsonPath.read(JSON, "$.order.items[0].sku"));
+    assertEquals(1, JsonPathCache.getMissCount());
+    assertEquals(1, JsonPathCache.getHitCount());
+
+    assertEquals("B", JsonPath.parse(JSON).read("$.order.items[1].sku"));
+    JsonPathCache.get("$.order.items[1].sku");
+    assertEquals(2, JsonPathCache.getMissCount());
+    assertEquals(2, JsonPathCache.getHitCount());
+    assertEquals(2, JsonPathCache.size());
+  }
+
+  @Test
+  void updatesReuseCompiledPaths() {
+    String updated = JSONUtils.updateElementFromJsonString(JSON, "$.order.id", "43");
+    assertEquals("43", JSONUtils.getElementValueFromJsonString(updated, "$.order.id"));
+    assertEquals(1, JsonPathCache.getMissCount());
+    assertEquals(2, JsonPathCache.getHitCount());
+  }
+
+  @Test
+  void sizeIsBounded() {
+    JsonPathCache.setMaxSize(2);
+    for (int i = 0; i < 5; i++)
+      JsonPathCache.get("$.order.items[" + i + "]");
+    assertTrue(JsonPathCache.size() <= 2);
+  }
+}
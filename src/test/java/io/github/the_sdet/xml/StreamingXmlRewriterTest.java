@@ -0,0 +1,103 @@
+package io.github.the_sdet.xml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Verifies updates, deletions, change counts and file handling of
+ * {@link StreamingXmlRewriter}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class StreamingXmlRewriterTest {
+  private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+      + "<Message><Header><MessageId>1</MessageId></Header>"
+      + "<Trade status=\"OLD\" id=\"7\"><Price>10</Price></Trade>"
+      + "<Trade status=\"OLD\" id=\"8\"><Price>11</Price></Trade>" + "<Signature><Value>abc</Value></Signature></Message>";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void updatesAndDeletesMatchedNodes() throws IOException {
+    StreamingXmlRewriter rewriter = new StreamingXmlRewriter().update("//Header/MessageId", "42")
+        .update("//Trade/@status", "NEW").delete("//Signature");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    int changes = rewriter.rewrite(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), out);
+
+    String result = out.toString(StandardCharsets.UTF_8);
+    assertEquals(4, changes);
+    assertTrue(result.contains("<MessageId>42</MessageId>"), result);
+    assertTrue(result.contains("status=\"NEW\""), result);
+    assertTrue(result.contains("id=\"7\""), result);
+    assertTrue(result.contains("<Price>10</Price>"), result);
+    assertFalse(result.contains("Signature"), result);
+    assertFalse(result.contains("OLD"), result);
+  }
+
+  @Test
+  void countsEachChangedNodeOnce() throws IOException {
+    StreamingXmlRewriter rewriter = new StreamingXmlRewriter().update("//Trade/@status", "NEW")
+        .delete("//Trade/@status").update("/Message/Trade/@status", "DONE").update("//Price", "0")
+        .update("//Price", "1");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    int changes = rewriter.rewrite(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), out);
+
+    String result = out.toString(StandardCharsets.UTF_8);
+    assertEquals(4, changes);
+    assertFalse(result.contains("status"), result);
+    assertTrue(result.contains("<Price>1</Price>"), result);
+  }
+
+  @Test
+  void inPlaceRewriteKeepsPermissions() throws IOException {
+    assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    Path file = dir.resolve("trade.xml");
+    Files.write(file, XML.getBytes(StandardCharsets.UTF_8));
+    Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-r--"));
+
+    int changes = new StreamingXmlRewriter().update("//MessageId", "42").rewrite(file.toString(), file.toString());
+
+    assertEquals(1, changes);
+    assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    assertTrue(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains("<MessageId>42</MessageId>"));
+    assertEquals(1, countFiles());
+  }
+
+  @Test
+  void newOutputFileGetsSamePermissionsAsPlainWrite() throws IOException {
+    assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    Path input = dir.resolve("in.xml");
+    Path output = dir.resolve("out.xml");
+    Files.write(input, XML.getBytes(StandardCharsets.UTF_8));
+
+    new StreamingXmlRewriter().delete("//Signature").rewrite(input.toString(), output.toString());
+
+    assertEquals(Files.getPosixFilePermissions(input), Files.getPosixFilePermissions(output));
+    assertFalse(new String(Files.readAllBytes(output), StandardCharsets.UTF_8).contains("Signature"));
+    assertEquals(2, countFiles());
+  }
+
+  private long countFiles() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.count();
+    }
+  }
+}
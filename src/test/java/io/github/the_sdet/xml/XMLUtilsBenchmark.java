@@ -0,0 +1,105 @@
+package io.github.the_sdet.xml;
+
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of {@link XMLUtils#readXML(String)} and
+ * {@link XMLUtils#saveXML(Document, String)}, which reuse per-thread builders
+ * and transformers, versus looking up a new factory on every call, on a small
+ * SOAP-sized document.
+ * <p>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=io.github.the_sdet.xml.XMLUtilsBenchmark
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+public final class XMLUtilsBenchmark {
+  private static final int THREADS = 4;
+  private static final int CALLS = 20_000;
+
+  private XMLUtilsBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Path dir = Files.createTempDirectory("xml-utils-benchmark");
+    Path file = dir.resolve("envelope.xml");
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      Files.write(file, soapEnvelope().getBytes(StandardCharsets.UTF_8));
+      String path = file.toString();
+      Document doc = XMLUtils.readXML(path);
+      for (int round = 1; round <= 3; round++) {
+        report("round " + round + " readXML, factory per call", run(executor,
+            () -> DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(path))));
+        report("round " + round + " readXML", run(executor, () -> XMLUtils.readXML(path)));
+        report("round " + round + " saveXML, factory per call",
+            run(executor, () -> TransformerFactory.newInstance().newTransformer().transform(new DOMSource(doc),
+                new StreamResult(threadFile(dir)))));
+        report("round " + round + " saveXML", run(executor, () -> XMLUtils.saveXML(doc, threadFile(dir).getPath())));
+      }
+    } finally {
+      executor.shutdown();
+      try (Stream<Path> files = Files.list(dir)) {
+        for (Path written : (Iterable<Path>) files::iterator)
+          Files.delete(written);
+      }
+      Files.delete(dir);
+    }
+  }
+
+  private static File threadFile(Path dir) {
+    return dir.resolve(Thread.currentThread().getName() + ".xml").toFile();
+  }
+
+  private interface Call {
+    void run() throws Exception;
+  }
+
+  private static long run(ExecutorService executor, Call call) throws Exception {
+    long start = System.nanoTime();
+    List<Future<?>> futures = new ArrayList<>(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < CALLS / THREADS; i++)
+          call.run();
+        return null;
+      }));
+    }
+    for (Future<?> future : futures)
+      future.get();
+    return System.nanoTime() - start;
+  }
+
+  private static void report(String name, long nanos) {
+    System.out.printf("%-40s %8.0f calls/s (%5.1f us per call, %d threads)%n", name, CALLS * 1e9 / nanos,
+        nanos / 1e3 / CALLS * THREADS, THREADS);
+  }
+
+  private static String soapEnvelope() {
+    StringBuilder xml = new StringBuilder(
+        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+            + "<GetOrderResponse xmlns=\"urn:orders\"><Order id=\"42\">");
+    for (int i = 0; i < 20; i++)
+      xml.append("<Item sku=\"SKU-").append(i).append("\"><Name>Item ").append(i).append("</Name><Quantity>")
+          .append(i % 5 + 1).append("</Quantity><Price>").append(i * 1.25).append("</Price></Item>");
+    return xml.append("</Order></GetOrderResponse></soap:Body></soap:Envelope>").toString();
+  }
+}